@@ -0,0 +1,86 @@
+package org.maia.graphics2d;
+
+import java.util.Random;
+
+import org.maia.graphics2d.image.AlphaCompositingKernel;
+
+/**
+ * Precision test of the vector compositing kernel against the scalar compositing kernel
+ * 
+ * <p>
+ * Both kernels combine the same random runs of front and back pixels, with alpha values drawn from the edge cases 0,
+ * 1, 254 and 255 as well as from the full range, and with run lengths that leave a tail of pixels that does not fill
+ * a complete vector. The largest difference per color channel is reported. The kernels should agree within 1 per
+ * channel. Run with <code>--add-modules jdk.incubator.vector</code>.
+ * </p>
+ */
+public class AlphaCompositingPrecisionDemo {
+
+	private static final int RUNS = 20000;
+
+	private static final int MAX_RUN_LENGTH = 257;
+
+	private static final int MAX_CHANNEL_DIFFERENCE = 1;
+
+	private static final int[] EDGE_ALPHAS = { 0, 1, 254, 255 };
+
+	private static final String[] CHANNEL_NAMES = { "blue", "green", "red", "alpha" };
+
+	public static void main(String[] args) {
+		new AlphaCompositingPrecisionDemo().startDemo();
+	}
+
+	private void startDemo() {
+		AlphaCompositingKernel scalarKernel = AlphaCompositingKernel.getScalarKernel();
+		AlphaCompositingKernel vectorKernel = AlphaCompositingKernel.getVectorKernel();
+		if (vectorKernel == null) {
+			System.err.println("The vector compositing kernel is not available, run with --add-modules "
+					+ "jdk.incubator.vector");
+			System.exit(1);
+		}
+		Random random = new Random(2024L);
+		int[] front = new int[MAX_RUN_LENGTH];
+		int[] back = new int[MAX_RUN_LENGTH];
+		int[] expected = new int[MAX_RUN_LENGTH];
+		int[] actual = new int[MAX_RUN_LENGTH];
+		int[] maxDifferences = new int[4];
+		long pixels = 0L;
+		for (int run = 0; run < RUNS; run++) {
+			int length = 1 + random.nextInt(MAX_RUN_LENGTH);
+			for (int i = 0; i < length; i++) {
+				front[i] = createRandomPixel(random);
+				back[i] = createRandomPixel(random);
+			}
+			System.arraycopy(back, 0, expected, 0, length);
+			System.arraycopy(back, 0, actual, 0, length);
+			scalarKernel.combineByTransparency(front, 0, expected, 0, length);
+			vectorKernel.combineByTransparency(front, 0, actual, 0, length);
+			for (int i = 0; i < length; i++) {
+				for (int channel = 0; channel < 4; channel++) {
+					int shift = 8 * channel;
+					int difference = Math.abs(((expected[i] >>> shift) & 0xff) - ((actual[i] >>> shift) & 0xff));
+					maxDifferences[channel] = Math.max(maxDifferences[channel], difference);
+				}
+			}
+			pixels += length;
+		}
+		System.out.println("Combined pixels: " + pixels);
+		boolean precise = true;
+		for (int channel = 3; channel >= 0; channel--) {
+			System.out.println("Largest " + CHANNEL_NAMES[channel] + " difference: " + maxDifferences[channel]);
+			if (maxDifferences[channel] > MAX_CHANNEL_DIFFERENCE) {
+				precise = false;
+			}
+		}
+		if (!precise) {
+			System.err.println("The vector compositing kernel deviates from the scalar compositing kernel");
+			System.exit(1);
+		}
+	}
+
+	private int createRandomPixel(Random random) {
+		int alpha = random.nextBoolean() ? EDGE_ALPHAS[random.nextInt(EDGE_ALPHAS.length)] : random.nextInt(256);
+		return (alpha << 24) | (random.nextInt() & 0x00ffffff);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+package org.maia.graphics2d;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.maia.graphics2d.image.ImageSampler;
+import org.maia.graphics2d.image.ImageUtils;
+
+/**
+ * Stress test for sharing image samplers between threads
+ * 
+ * <p>
+ * Each sampler samples a fixed set of random coordinates serially, as the reference. Then a number of threads sample
+ * the same coordinates concurrently using that same sampler instance, each thread in its own order and through both
+ * the single and batch sampling methods. Any deviation from the reference is reported.
+ * </p>
+ */
+public class ImageSamplerConcurrencyDemo {
+
+	private static final int THREADS = 8;
+
+	private static final int ROUNDS = 50;
+
+	private static final int SAMPLES = 20000;
+
+	public static void main(String[] args) throws Exception {
+		new ImageSamplerConcurrencyDemo().startDemo();
+	}
+
+	private void startDemo() throws Exception {
+		BufferedImage image = ImageUtils.readFromFile("demo-resources/zootropolis.png");
+		Random random = new Random(2024L);
+		int width = ImageUtils.getWidth(image);
+		int height = ImageUtils.getHeight(image);
+		float[] sxs = new float[SAMPLES];
+		float[] sys = new float[SAMPLES];
+		for (int i = 0; i < SAMPLES; i++) {
+			sxs[i] = 0.5f + random.nextFloat() * (width - 1f);
+			sys[i] = 0.5f + random.nextFloat() * (height - 1f);
+		}
+		List<ImageSampler> samplers = new Vector<ImageSampler>();
+		samplers.add(ImageSampler.createBilinearImageSampler(image));
+		samplers.add(ImageSampler.createHorizontalLinearImageSampler(image));
+		samplers.add(ImageSampler.createVerticalLinearImageSampler(image));
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		int failures = 0;
+		try {
+			for (ImageSampler sampler : samplers) {
+				int[] reference = new int[SAMPLES];
+				for (int i = 0; i < SAMPLES; i++) {
+					reference[i] = sampler.sampleRGB(sxs[i], sys[i]);
+				}
+				List<Future<Integer>> results = new Vector<Future<Integer>>();
+				for (int t = 0; t < THREADS; t++) {
+					results.add(executor.submit(new SamplingTask(sampler, sxs, sys, reference, t)));
+				}
+				int mismatches = 0;
+				for (Future<Integer> result : results) {
+					mismatches += result.get();
+				}
+				System.out.println(sampler.getClass().getSimpleName() + ": " + mismatches + " mismatches in "
+						+ (THREADS * ROUNDS * 2L * SAMPLES) + " concurrent samples");
+				failures += mismatches;
+			}
+		} finally {
+			executor.shutdown();
+		}
+		if (failures > 0) {
+			System.err.println("Parallel sampling deviates from serial sampling");
+			System.exit(1);
+		}
+	}
+
+	private static class SamplingTask implements Callable<Integer> {
+
+		private ImageSampler sampler;
+
+		private float[] sxs;
+
+		private float[] sys;
+
+		private int[] reference;
+
+		private int seed;
+
+		public SamplingTask(ImageSampler sampler, float[] sxs, float[] sys, int[] reference, int seed) {
+			this.sampler = sampler;
+			this.sxs = sxs;
+			this.sys = sys;
+			this.reference = reference;
+			this.seed = seed;
+		}
+
+		@Override
+		public Integer call() {
+			int mismatches = 0;
+			int n = reference.length;
+			int[] batch = new int[n];
+			int[] order = new int[n];
+			for (int i = 0; i < n; i++) {
+				order[i] = i;
+			}
+			Random random = new Random(seed);
+			for (int round = 0; round < ROUNDS; round++) {
+				// single samples, visiting all coordinates in a thread-specific order
+				shuffle(order, random);
+				for (int k = 0; k < n; k++) {
+					int i = order[k];
+					if (sampler.sampleRGB(sxs[i], sys[i]) != reference[i])
+						mismatches++;
+				}
+				// batch samples
+				sampler.sampleRGB(sxs, sys, 0, n, batch, 0);
+				for (int i = 0; i < n; i++) {
+					if (batch[i] != reference[i])
+						mismatches++;
+				}
+			}
+			return mismatches;
+		}
+
+		private void shuffle(int[] values, Random random) {
+			for (int i = values.length - 1; i > 0; i--) {
+				int j = random.nextInt(i + 1);
+				int value = values[i];
+				values[i] = values[j];
+				values[j] = value;
+			}
+		}
+
+	}
+
+}
\ No newline at end of file
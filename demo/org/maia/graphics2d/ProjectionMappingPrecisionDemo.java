@@ -0,0 +1,104 @@
+package org.maia.graphics2d;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.maia.graphics2d.image.ImageUtils;
+import org.maia.graphics2d.image.ops.QuadrilateralImageProjection;
+import org.maia.graphics2d.image.ops.QuadrilateralImageProjection.PseudoPerspective;
+import org.maia.graphics2d.image.ops.QuadrilateralImageProjection.Quadrilateral;
+
+/**
+ * Precision test of the incremental mapping of a quadrilateral projection against the per-pixel mapping
+ * 
+ * <p>
+ * The source image encodes the coordinates of each pixel in its color, and is projected without sub-sampling and
+ * without edge smoothing. Each projected pixel then reveals the source pixel it was mapped to, so that both mappings
+ * can be compared pixel by pixel, for random quadrilaterals.
+ * </p>
+ */
+public class ProjectionMappingPrecisionDemo {
+
+	private static final int SOURCE_SIZE = 256;
+
+	private static final int TARGET_SIZE = 1200;
+
+	private static final int QUADRILATERALS = 50;
+
+	private static final double MAX_MISMATCH_RATIO = 0.001;
+
+	public static void main(String[] args) {
+		new ProjectionMappingPrecisionDemo().startDemo();
+	}
+
+	private void startDemo() {
+		BufferedImage sourceImage = createCoordinateImage();
+		Dimension targetSize = new Dimension(TARGET_SIZE, TARGET_SIZE);
+		QuadrilateralImageProjection perPixel = createProjection(false);
+		QuadrilateralImageProjection incremental = createProjection(true);
+		Random random = new Random(2024L);
+		long pixels = 0L, mismatches = 0L, coverageMismatches = 0L;
+		int maxOffset = 0;
+		for (int i = 0; i < QUADRILATERALS; i++) {
+			Quadrilateral area = createRandomQuadrilateral(random);
+			PseudoPerspective perspective = i % 2 == 0 ? null : new PseudoPerspective(random.nextFloat(), 0.5f);
+			BufferedImage expected = perPixel.project(sourceImage, targetSize, area, perspective);
+			BufferedImage actual = incremental.project(sourceImage, targetSize, area, perspective);
+			for (int y = 0; y < TARGET_SIZE; y++) {
+				for (int x = 0; x < TARGET_SIZE; x++) {
+					int e = expected.getRGB(x, y);
+					int a = actual.getRGB(x, y);
+					if ((e >>> 24) != 0 || (a >>> 24) != 0) {
+						pixels++;
+						if ((e >>> 24) != (a >>> 24)) {
+							coverageMismatches++;
+						} else if (e != a) {
+							mismatches++;
+							int dx = Math.abs(((e >>> 16) & 0xff) - ((a >>> 16) & 0xff));
+							int dy = Math.abs(((e >>> 8) & 0xff) - ((a >>> 8) & 0xff));
+							maxOffset = Math.max(maxOffset, Math.max(dx, dy));
+						}
+					}
+				}
+			}
+		}
+		System.out.println("Projected pixels: " + pixels);
+		System.out.println("Pixels mapped to another source pixel: " + mismatches + " (at most " + maxOffset
+				+ " pixel off)");
+		System.out.println("Pixels inside one mapping only: " + coverageMismatches);
+		if (mismatches + coverageMismatches > MAX_MISMATCH_RATIO * pixels || maxOffset > 1) {
+			System.err.println("The incremental mapping is not precise enough");
+			System.exit(1);
+		}
+	}
+
+	private QuadrilateralImageProjection createProjection(boolean incrementalMapping) {
+		QuadrilateralImageProjection projection = new QuadrilateralImageProjection();
+		projection.setSubSampling(false);
+		projection.setSmoothEdges(false);
+		projection.setIncrementalMapping(incrementalMapping);
+		return projection;
+	}
+
+	private BufferedImage createCoordinateImage() {
+		BufferedImage image = ImageUtils.createImage(SOURCE_SIZE, SOURCE_SIZE);
+		for (int y = 0; y < SOURCE_SIZE; y++) {
+			for (int x = 0; x < SOURCE_SIZE; x++) {
+				image.setRGB(x, y, 0xff000000 | (x << 16) | (y << 8));
+			}
+		}
+		return image;
+	}
+
+	private Quadrilateral createRandomQuadrilateral(Random random) {
+		int m = TARGET_SIZE / 4;
+		Point p1 = new Point(random.nextInt(m), random.nextInt(m));
+		Point p2 = new Point(TARGET_SIZE - 1 - random.nextInt(m), random.nextInt(m));
+		Point p3 = new Point(TARGET_SIZE - 1 - random.nextInt(m), TARGET_SIZE - 1 - random.nextInt(m));
+		Point p4 = new Point(random.nextInt(m), TARGET_SIZE - 1 - random.nextInt(m));
+		return new Quadrilateral(p1, p2, p3, p4);
+	}
+
+}
\ No newline at end of file
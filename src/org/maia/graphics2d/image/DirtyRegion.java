@@ -0,0 +1,249 @@
+package org.maia.graphics2d.image;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+
+/**
+ * Collects the pixels of an image that were changed by one or more operations
+ * 
+ * <p>
+ * The changes are kept as one span of columns per row, covering all changes in that row, and as the bounding
+ * rectangle of all changes. Downstream stages, like repainting or encoding, can limit themselves to the row spans, or
+ * to the bounds. Operations that report their changes accept a <code>DirtyRegion</code> as an optional argument.
+ * Several operations can report into the same region, also concurrently, as a region is thread-safe.
+ * </p>
+ */
+public class DirtyRegion {
+
+	private int[] startXs; // per row, the first changed column, or Integer.MAX_VALUE when unchanged
+
+	private int[] endXs; // per row, the column following the last changed column
+
+	private int rowCount;
+
+	private int minY;
+
+	private int maxY;
+
+	private Rectangle bounds; // computed on demand, null when not yet computed
+
+	public DirtyRegion() {
+		this(0);
+	}
+
+	/**
+	 * Creates an empty region
+	 * 
+	 * @param height
+	 *            The expected height of the image, so that rows can be added without growing the region
+	 */
+	public DirtyRegion(int height) {
+		if (height < 0)
+			throw new IllegalArgumentException("The height must be positive (" + height + ")");
+		this.startXs = new int[height];
+		this.endXs = new int[height];
+		clear();
+	}
+
+	/**
+	 * Adds a span of changed pixels in a row
+	 * 
+	 * @param y
+	 *            The row, which must be positive
+	 * @param xFrom
+	 *            The first changed column
+	 * @param xTo
+	 *            The column following the last changed column. When not greater than <code>xFrom</code>, nothing is
+	 *            added
+	 */
+	public synchronized void addSpan(int y, int xFrom, int xTo) {
+		if (xFrom < xTo) {
+			ensureRows(y + 1);
+			addRowSpan(y, xFrom, xTo);
+		}
+	}
+
+	/**
+	 * Adds the spans of changed pixels in consecutive rows, such as the rows of a tile, at once
+	 * 
+	 * @param y
+	 *            The first row, which must be positive
+	 * @param rows
+	 *            The number of rows
+	 * @param xFroms
+	 *            The first changed column of each row
+	 * @param xTos
+	 *            The column following the last changed column of each row. When not greater than the first changed
+	 *            column, nothing is added for that row
+	 * @param offset
+	 *            The index in <code>xFroms</code> and <code>xTos</code> of the first row
+	 */
+	public synchronized void addSpans(int y, int rows, int[] xFroms, int[] xTos, int offset) {
+		ensureRows(y + rows);
+		for (int i = 0; i < rows; i++) {
+			if (xFroms[offset + i] < xTos[offset + i]) {
+				addRowSpan(y + i, xFroms[offset + i], xTos[offset + i]);
+			}
+		}
+	}
+
+	private void addRowSpan(int y, int xFrom, int xTo) {
+		if (y < 0)
+			throw new IllegalArgumentException("The row must be positive (" + y + ")");
+		if (startXs[y] == Integer.MAX_VALUE) {
+			rowCount++;
+			minY = Math.min(minY, y);
+			maxY = Math.max(maxY, y);
+		}
+		startXs[y] = Math.min(startXs[y], xFrom);
+		endXs[y] = Math.max(endXs[y], xTo);
+		bounds = null;
+	}
+
+	private void ensureRows(int rows) {
+		int height = startXs.length;
+		if (rows > height) {
+			int newHeight = Math.max(rows, 2 * height);
+			startXs = Arrays.copyOf(startXs, newHeight);
+			endXs = Arrays.copyOf(endXs, newHeight);
+			Arrays.fill(startXs, height, newHeight, Integer.MAX_VALUE);
+			Arrays.fill(endXs, height, newHeight, Integer.MIN_VALUE);
+		}
+	}
+
+	/**
+	 * Adds the pixels in a row that differ between two runs of pixels
+	 * 
+	 * @param x
+	 *            The column of the first pixel of the runs
+	 * @param y
+	 *            The row of the runs
+	 * @param argbsBefore
+	 *            The pixels before the change, packed as integers in the ARGB color model
+	 * @param offsetBefore
+	 *            The index of the first pixel before the change
+	 * @param argbsAfter
+	 *            The pixels after the change, packed as integers in the ARGB color model
+	 * @param offsetAfter
+	 *            The index of the first pixel after the change
+	 * @param length
+	 *            The number of pixels in the runs
+	 */
+	public void addChanges(int x, int y, int[] argbsBefore, int offsetBefore, int[] argbsAfter, int offsetAfter,
+			int length) {
+		int from = 0;
+		while (from < length && argbsBefore[offsetBefore + from] == argbsAfter[offsetAfter + from])
+			from++;
+		int to = length;
+		while (to > from && argbsBefore[offsetBefore + to - 1] == argbsAfter[offsetAfter + to - 1])
+			to--;
+		addSpan(y, x + from, x + to);
+	}
+
+	public void addRegion(DirtyRegion region) {
+		for (RowSpan span : region.getRowSpans()) {
+			addSpan(span.getY(), span.getStartX(), span.getEndX());
+		}
+	}
+
+	public synchronized void clear() {
+		Arrays.fill(startXs, Integer.MAX_VALUE);
+		Arrays.fill(endXs, Integer.MIN_VALUE);
+		rowCount = 0;
+		minY = Integer.MAX_VALUE;
+		maxY = Integer.MIN_VALUE;
+		bounds = null;
+	}
+
+	public synchronized boolean isEmpty() {
+		return rowCount == 0;
+	}
+
+	/**
+	 * Returns the bounding rectangle of all changes
+	 * 
+	 * @return The bounds, which is an empty rectangle when there are no changes
+	 */
+	public synchronized Rectangle getBounds() {
+		if (bounds == null) {
+			bounds = new Rectangle();
+			if (rowCount > 0) {
+				int minX = Integer.MAX_VALUE;
+				int maxX = Integer.MIN_VALUE;
+				for (int y = minY; y <= maxY; y++) {
+					if (startXs[y] != Integer.MAX_VALUE) {
+						minX = Math.min(minX, startXs[y]);
+						maxX = Math.max(maxX, endXs[y]);
+					}
+				}
+				bounds.setBounds(minX, minY, maxX - minX, maxY - minY + 1);
+			}
+		}
+		return new Rectangle(bounds);
+	}
+
+	/**
+	 * Returns the spans of changed pixels
+	 * 
+	 * @return The spans, one per row with changes, in order of increasing row
+	 */
+	public synchronized List<RowSpan> getRowSpans() {
+		List<RowSpan> spans = new Vector<RowSpan>(rowCount);
+		for (int y = minY; y <= maxY; y++) {
+			if (startXs[y] != Integer.MAX_VALUE) {
+				spans.add(new RowSpan(y, startXs[y], endXs[y]));
+			}
+		}
+		return spans;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "DirtyRegion [rows=" + rowCount + ", bounds=" + getBounds() + "]";
+	}
+
+	public static class RowSpan {
+
+		private int y;
+
+		private int startX;
+
+		private int endX;
+
+		public RowSpan(int y, int startX, int endX) {
+			this.y = y;
+			this.startX = startX;
+			this.endX = endX;
+		}
+
+		@Override
+		public String toString() {
+			return "RowSpan [y=" + y + ", x=" + startX + ".." + endX + "]";
+		}
+
+		public int getY() {
+			return y;
+		}
+
+		public int getStartX() {
+			return startX;
+		}
+
+		/**
+		 * Returns the end of this span
+		 * 
+		 * @return The column following the last changed column
+		 */
+		public int getEndX() {
+			return endX;
+		}
+
+		public int getWidth() {
+			return endX - startX;
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package org.maia.graphics2d.image;
+
+import java.awt.Dimension;
+import java.awt.image.ColorModel;
+import java.io.File;
+
+/**
+ * Properties of an image file, as read from its header without decoding the pixels
+ * 
+ * @see ImageUtils#probeImageHeader(File)
+ */
+public class ImageHeader {
+
+	private File file;
+
+	private String formatName;
+
+	private int width;
+
+	private int height;
+
+	private ColorModel colorModel;
+
+	public ImageHeader(File file, String formatName, int width, int height, ColorModel colorModel) {
+		this.file = file;
+		this.formatName = formatName;
+		this.width = width;
+		this.height = height;
+		this.colorModel = colorModel;
+	}
+
+	@Override
+	public String toString() {
+		return "ImageHeader [file=" + getFile() + ", format=" + getFormatName() + ", width=" + getWidth() + ", height="
+				+ getHeight() + "]";
+	}
+
+	public Dimension getSize() {
+		return new Dimension(getWidth(), getHeight());
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public String getFormatName() {
+		return formatName;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the color model in which the image would be decoded
+	 * 
+	 * @return The color model, or <code>null</code> when the image reader cannot tell without decoding
+	 */
+	public ColorModel getColorModel() {
+		return colorModel;
+	}
+
+}
\ No newline at end of file
@@ -1,5 +1,7 @@
 package org.maia.graphics2d.image;
 
+import java.awt.Dimension;
+
 public interface ImageInfo {
 
 	/**
@@ -16,4 +18,13 @@ public interface ImageInfo {
 	 */
 	String getDescription();
 
+	/**
+	 * Returns the size of the image, when known without producing the image
+	 * 
+	 * @return The image size. Can be <code>null</code> when unknown, which is the default
+	 */
+	default Dimension getSize() {
+		return null;
+	}
+
 }
\ No newline at end of file
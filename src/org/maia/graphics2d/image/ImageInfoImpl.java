@@ -1,11 +1,15 @@
 package org.maia.graphics2d.image;
 
+import java.awt.Dimension;
+
 public class ImageInfoImpl implements ImageInfo {
 
 	private String title;
 
 	private String description;
 
+	private Dimension size;
+
 	public ImageInfoImpl() {
 		this(null);
 	}
@@ -29,6 +33,11 @@ public class ImageInfoImpl implements ImageInfo {
 		return description;
 	}
 
+	@Override
+	public Dimension getSize() {
+		return size;
+	}
+
 	public void setTitle(String title) {
 		this.title = title;
 	}
@@ -37,4 +46,8 @@ public class ImageInfoImpl implements ImageInfo {
 		this.description = description;
 	}
 
+	public void setSize(Dimension size) {
+		this.size = size;
+	}
+
 }
\ No newline at end of file
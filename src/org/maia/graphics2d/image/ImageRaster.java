@@ -0,0 +1,281 @@
+package org.maia.graphics2d.image;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+
+/**
+ * Pixel access to a <code>BufferedImage</code>, in the ARGB color model
+ * 
+ * <p>
+ * For images of type <code>TYPE_INT_ARGB</code>, pixels are read and written directly from the backing
+ * <code>DataBufferInt</code>, and rows are copied in bulk. Other image types fall back to the (row variants of the)
+ * <code>getRGB</code> and <code>setRGB</code> methods of <code>BufferedImage</code>. Both give identical results.
+ * </p>
+ * 
+ * <p>
+ * An instance holds no state other than the image, and can be shared between threads that access disjoint pixels
+ * </p>
+ */
+public abstract class ImageRaster {
+
+	private BufferedImage image;
+
+	private int width;
+
+	private int height;
+
+	protected ImageRaster(BufferedImage image) {
+		this.image = image;
+		this.width = image.getWidth();
+		this.height = image.getHeight();
+	}
+
+	public static ImageRaster createImageRaster(BufferedImage image) {
+		if (isDirectlyAccessible(image)) {
+			return new DirectImageRaster(image);
+		} else {
+			return new GenericImageRaster(image);
+		}
+	}
+
+	private static boolean isDirectlyAccessible(BufferedImage image) {
+		if (image.getType() != BufferedImage.TYPE_INT_ARGB)
+			return false;
+		WritableRaster raster = image.getRaster();
+		return raster.getDataBuffer() instanceof DataBufferInt
+				&& raster.getSampleModel() instanceof SinglePixelPackedSampleModel
+				&& raster.getDataBuffer().getNumBanks() == 1;
+	}
+
+	/**
+	 * Tells whether pixels are accessed directly in the image's data buffer
+	 * 
+	 * @return <code>true</code> when the pixel data is accessed directly, <code>false</code> when the access goes
+	 *         through the color model of the image
+	 */
+	public abstract boolean isDirect();
+
+	/**
+	 * Returns a pixel
+	 * 
+	 * @param x
+	 *            The x coordinate, in the range [0, width - 1]
+	 * @param y
+	 *            The y coordinate, in the range [0, height - 1]
+	 * @return The pixel, packed as an integer in the ARGB color model
+	 */
+	public abstract int getRGB(int x, int y);
+
+	/**
+	 * Sets a pixel
+	 * 
+	 * @param x
+	 *            The x coordinate, in the range [0, width - 1]
+	 * @param y
+	 *            The y coordinate, in the range [0, height - 1]
+	 * @param argb
+	 *            The pixel, packed as an integer in the ARGB color model
+	 */
+	public abstract void setRGB(int x, int y, int argb);
+
+	/**
+	 * Reads a horizontal run of pixels
+	 * 
+	 * @param x
+	 *            The x coordinate of the first pixel
+	 * @param y
+	 *            The y coordinate of the row
+	 * @param length
+	 *            The number of pixels to read
+	 * @param argbs
+	 *            The array that receives the pixels, packed as integers in the ARGB color model
+	 * @param offset
+	 *            The index in <code>argbs</code> of the first pixel
+	 */
+	public abstract void getRow(int x, int y, int length, int[] argbs, int offset);
+
+	/**
+	 * Writes a horizontal run of pixels
+	 * 
+	 * @param x
+	 *            The x coordinate of the first pixel
+	 * @param y
+	 *            The y coordinate of the row
+	 * @param length
+	 *            The number of pixels to write
+	 * @param argbs
+	 *            The array that holds the pixels, packed as integers in the ARGB color model
+	 * @param offset
+	 *            The index in <code>argbs</code> of the first pixel
+	 */
+	public abstract void setRow(int x, int y, int length, int[] argbs, int offset);
+
+	/**
+	 * Sets all pixels in a rectangular area to the same value
+	 * 
+	 * @param x
+	 *            The x coordinate of the area
+	 * @param y
+	 *            The y coordinate of the area
+	 * @param width
+	 *            The width of the area
+	 * @param height
+	 *            The height of the area
+	 * @param argb
+	 *            The pixel value, packed as an integer in the ARGB color model
+	 */
+	public abstract void fill(int x, int y, int width, int height, int argb);
+
+	/**
+	 * Copies a horizontal run of pixels from another raster into this raster
+	 * 
+	 * @param source
+	 *            The raster to copy from
+	 * @param sx
+	 *            The x coordinate of the first pixel in <code>source</code>
+	 * @param sy
+	 *            The y coordinate of the row in <code>source</code>
+	 * @param tx
+	 *            The x coordinate of the first pixel in this raster
+	 * @param ty
+	 *            The y coordinate of the row in this raster
+	 * @param length
+	 *            The number of pixels to copy
+	 * @param buffer
+	 *            A scratch array of at least <code>length</code> elements, used when not both rasters are direct. Can
+	 *            be <code>null</code>, in which case one is allocated when needed
+	 */
+	public void copyRow(ImageRaster source, int sx, int sy, int tx, int ty, int length, int[] buffer) {
+		if (buffer == null || buffer.length < length) {
+			buffer = new int[length];
+		}
+		source.getRow(sx, sy, length, buffer, 0);
+		setRow(tx, ty, length, buffer, 0);
+	}
+
+	public BufferedImage getImage() {
+		return image;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	private static class DirectImageRaster extends ImageRaster {
+
+		private int[] data;
+
+		private int dataOffset;
+
+		private int scanlineStride;
+
+		public DirectImageRaster(BufferedImage image) {
+			super(image);
+			WritableRaster raster = image.getRaster();
+			DataBuffer buffer = raster.getDataBuffer();
+			SinglePixelPackedSampleModel sampleModel = (SinglePixelPackedSampleModel) raster.getSampleModel();
+			this.data = ((DataBufferInt) buffer).getData();
+			this.scanlineStride = sampleModel.getScanlineStride();
+			// a sub-image shares the data buffer of its parent, with a translated origin
+			int tx = -raster.getSampleModelTranslateX();
+			int ty = -raster.getSampleModelTranslateY();
+			this.dataOffset = buffer.getOffset() + ty * scanlineStride + tx;
+		}
+
+		@Override
+		public boolean isDirect() {
+			return true;
+		}
+
+		@Override
+		public int getRGB(int x, int y) {
+			return data[dataOffset + y * scanlineStride + x];
+		}
+
+		@Override
+		public void setRGB(int x, int y, int argb) {
+			data[dataOffset + y * scanlineStride + x] = argb;
+		}
+
+		@Override
+		public void getRow(int x, int y, int length, int[] argbs, int offset) {
+			System.arraycopy(data, dataOffset + y * scanlineStride + x, argbs, offset, length);
+		}
+
+		@Override
+		public void setRow(int x, int y, int length, int[] argbs, int offset) {
+			System.arraycopy(argbs, offset, data, dataOffset + y * scanlineStride + x, length);
+		}
+
+		@Override
+		public void fill(int x, int y, int width, int height, int argb) {
+			for (int yi = y; yi < y + height; yi++) {
+				int i = dataOffset + yi * scanlineStride + x;
+				Arrays.fill(data, i, i + width, argb);
+			}
+		}
+
+		@Override
+		public void copyRow(ImageRaster source, int sx, int sy, int tx, int ty, int length, int[] buffer) {
+			if (source instanceof DirectImageRaster) {
+				DirectImageRaster src = (DirectImageRaster) source;
+				System.arraycopy(src.data, src.dataOffset + sy * src.scanlineStride + sx, data,
+						dataOffset + ty * scanlineStride + tx, length);
+			} else {
+				source.getRow(sx, sy, length, data, dataOffset + ty * scanlineStride + tx);
+			}
+		}
+
+	}
+
+	private static class GenericImageRaster extends ImageRaster {
+
+		public GenericImageRaster(BufferedImage image) {
+			super(image);
+		}
+
+		@Override
+		public boolean isDirect() {
+			return false;
+		}
+
+		@Override
+		public int getRGB(int x, int y) {
+			return getImage().getRGB(x, y);
+		}
+
+		@Override
+		public void setRGB(int x, int y, int argb) {
+			getImage().setRGB(x, y, argb);
+		}
+
+		@Override
+		public void getRow(int x, int y, int length, int[] argbs, int offset) {
+			getImage().getRGB(x, y, length, 1, argbs, offset, length);
+		}
+
+		@Override
+		public void setRow(int x, int y, int length, int[] argbs, int offset) {
+			getImage().setRGB(x, y, length, 1, argbs, offset, length);
+		}
+
+		@Override
+		public void fill(int x, int y, int width, int height, int argb) {
+			int[] row = new int[width];
+			Arrays.fill(row, argb);
+			for (int yi = y; yi < y + height; yi++) {
+				setRow(x, yi, width, row, 0);
+			}
+		}
+
+	}
+
+}
\ No newline at end of file
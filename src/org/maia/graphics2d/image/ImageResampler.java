@@ -0,0 +1,241 @@
+package org.maia.graphics2d.image;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import org.maia.graphics2d.image.parallel.ImageTile;
+import org.maia.graphics2d.image.parallel.ImageTileProcessor;
+import org.maia.graphics2d.image.parallel.ImageTileScheduler;
+
+/**
+ * Reduces the resolution of images by area averaging, working on rows of pixels
+ * 
+ * <p>
+ * Each target pixel is the average of the source pixels it covers, weighted by the fraction of each source pixel
+ * that falls inside it. This does not alias at large reduction factors, unlike interpolation which only looks at a
+ * few source pixels around each target pixel. The color channels are averaged weighted by alpha, so that fully
+ * transparent pixels do not bleed their color into the result.
+ * </p>
+ * 
+ * <p>
+ * Target rows are independent, and are processed by the tiles of an <code>ImageTileScheduler</code>
+ * </p>
+ */
+public class ImageResampler {
+
+	private ImageResampler() {
+	}
+
+	public static BufferedImage downscale(BufferedImage image, int width, int height) {
+		return downscale(image, width, height, ImageTileScheduler.SERIAL);
+	}
+
+	/**
+	 * Scales down an image by area averaging
+	 * 
+	 * @param image
+	 *            The source image
+	 * @param width
+	 *            The width of the scaled image, at most the width of the source image
+	 * @param height
+	 *            The height of the scaled image, at most the height of the source image
+	 * @param scheduler
+	 *            The scheduler for processing tiles of the scaled image
+	 * @return A new image holding the scaled image
+	 */
+	public static BufferedImage downscale(BufferedImage image, int width, int height, ImageTileScheduler scheduler) {
+		int sourceWidth = ImageUtils.getWidth(image);
+		int sourceHeight = ImageUtils.getHeight(image);
+		if (width <= 0 || width > sourceWidth)
+			throw new IllegalArgumentException(
+					"The width must be in the range [1, " + sourceWidth + "] (" + width + ")");
+		if (height <= 0 || height > sourceHeight)
+			throw new IllegalArgumentException(
+					"The height must be in the range [1, " + sourceHeight + "] (" + height + ")");
+		BufferedImage scaledImage = ImageUtils.createImage(width, height);
+		final ImageRaster source = ImageRaster.createImageRaster(image);
+		final ImageRaster target = ImageRaster.createImageRaster(scaledImage);
+		final AxisCoverage columns = new AxisCoverage(sourceWidth, width);
+		final AxisCoverage rows = new AxisCoverage(sourceHeight, height);
+		scheduler.process(width, height, new ImageTileProcessor() {
+
+			@Override
+			public void processTile(ImageTile tile) {
+				int sxFrom = columns.getFirstSourceIndex(tile.getX());
+				int sxTo = columns.getEndSourceIndex(tile.getEndX() - 1);
+				int[] sourceRow = new int[sxTo - sxFrom];
+				float[] columnSums = new float[4 * sourceRow.length];
+				int[] targetRow = new int[tile.getWidth()];
+				for (int y = tile.getY(); y < tile.getEndY(); y++) {
+					Arrays.fill(columnSums, 0f);
+					for (int i = 0; i < rows.getSourceCount(y); i++) {
+						source.getRow(sxFrom, rows.getFirstSourceIndex(y) + i, sourceRow.length, sourceRow, 0);
+						accumulate(sourceRow, rows.getWeight(y, i), columnSums);
+					}
+					for (int x = tile.getX(); x < tile.getEndX(); x++) {
+						float alpha = 0f, red = 0f, green = 0f, blue = 0f;
+						int j = 4 * (columns.getFirstSourceIndex(x) - sxFrom);
+						for (int i = 0; i < columns.getSourceCount(x); i++, j += 4) {
+							float weight = columns.getWeight(x, i);
+							alpha += columnSums[j] * weight;
+							red += columnSums[j + 1] * weight;
+							green += columnSums[j + 2] * weight;
+							blue += columnSums[j + 3] * weight;
+						}
+						targetRow[x - tile.getX()] = toArgb(alpha, red, green, blue);
+					}
+					target.setRow(tile.getX(), y, tile.getWidth(), targetRow, 0);
+				}
+			}
+		});
+		return scaledImage;
+	}
+
+	public static BufferedImage pixelate(BufferedImage image, int pixelWidth, int pixelHeight) {
+		return pixelate(image, pixelWidth, pixelHeight, ImageTileScheduler.SERIAL);
+	}
+
+	/**
+	 * Pixelates an image by filling blocks of pixels with their average color
+	 * 
+	 * <p>
+	 * Blocks are aligned with the upper-left corner of the image. The blocks at the right and bottom border are
+	 * clipped to the image, and average only the pixels they cover.
+	 * </p>
+	 * 
+	 * @param image
+	 *            The source image
+	 * @param pixelWidth
+	 *            The width of a block
+	 * @param pixelHeight
+	 *            The height of a block
+	 * @param scheduler
+	 *            The scheduler for processing tiles, where the tiles are measured in blocks rather than pixels
+	 * @return A new image of the same size as the source image, holding the pixelated image
+	 */
+	public static BufferedImage pixelate(BufferedImage image, final int pixelWidth, final int pixelHeight,
+			ImageTileScheduler scheduler) {
+		if (pixelWidth <= 0)
+			throw new IllegalArgumentException("The pixelWidth must be strictly positive (" + pixelWidth + ")");
+		if (pixelHeight <= 0)
+			throw new IllegalArgumentException("The pixelHeight must be strictly positive (" + pixelHeight + ")");
+		final int width = ImageUtils.getWidth(image);
+		final int height = ImageUtils.getHeight(image);
+		BufferedImage pixelatedImage = ImageUtils.createImage(width, height);
+		final ImageRaster source = ImageRaster.createImageRaster(image);
+		final ImageRaster target = ImageRaster.createImageRaster(pixelatedImage);
+		int blockColumns = (width + pixelWidth - 1) / pixelWidth;
+		int blockRows = (height + pixelHeight - 1) / pixelHeight;
+		scheduler.process(blockColumns, blockRows, new ImageTileProcessor() {
+
+			@Override
+			public void processTile(ImageTile tile) {
+				int xFrom = tile.getX() * pixelWidth;
+				int xTo = Math.min(tile.getEndX() * pixelWidth, width);
+				int[] sourceRow = new int[xTo - xFrom];
+				float[] columnSums = new float[4 * sourceRow.length];
+				for (int by = tile.getY(); by < tile.getEndY(); by++) {
+					int yFrom = by * pixelHeight;
+					int yTo = Math.min(yFrom + pixelHeight, height);
+					Arrays.fill(columnSums, 0f);
+					for (int y = yFrom; y < yTo; y++) {
+						source.getRow(xFrom, y, sourceRow.length, sourceRow, 0);
+						accumulate(sourceRow, 1f, columnSums);
+					}
+					for (int x0 = xFrom; x0 < xTo; x0 += pixelWidth) {
+						int x1 = Math.min(x0 + pixelWidth, xTo);
+						float alpha = 0f, red = 0f, green = 0f, blue = 0f;
+						for (int j = 4 * (x0 - xFrom); j < 4 * (x1 - xFrom); j += 4) {
+							alpha += columnSums[j];
+							red += columnSums[j + 1];
+							green += columnSums[j + 2];
+							blue += columnSums[j + 3];
+						}
+						float weight = 1f / ((x1 - x0) * (yTo - yFrom));
+						int argb = toArgb(alpha * weight, red * weight, green * weight, blue * weight);
+						target.fill(x0, yFrom, x1 - x0, yTo - yFrom, argb);
+					}
+				}
+			}
+		});
+		return pixelatedImage;
+	}
+
+	private static void accumulate(int[] argbs, float weight, float[] sums) {
+		for (int i = 0, j = 0; i < argbs.length; i++, j += 4) {
+			int argb = argbs[i];
+			float alpha = (argb >>> 24) * weight;
+			sums[j] += alpha;
+			sums[j + 1] += ((argb >>> 16) & 0xff) * alpha;
+			sums[j + 2] += ((argb >>> 8) & 0xff) * alpha;
+			sums[j + 3] += (argb & 0xff) * alpha;
+		}
+	}
+
+	private static int toArgb(float alpha, float alphaWeightedRed, float alphaWeightedGreen,
+			float alphaWeightedBlue) {
+		if (alpha <= 0f)
+			return 0;
+		int a = Math.min(Math.round(alpha), 0xff);
+		int r = Math.min(Math.round(alphaWeightedRed / alpha), 0xff);
+		int g = Math.min(Math.round(alphaWeightedGreen / alpha), 0xff);
+		int b = Math.min(Math.round(alphaWeightedBlue / alpha), 0xff);
+		return (a << 24) | (r << 16) | (g << 8) | b;
+	}
+
+	/**
+	 * The source pixels covered by each target pixel along one axis, with the fraction of coverage as weight. The
+	 * weights of a target pixel sum up to 1
+	 */
+	private static class AxisCoverage {
+
+		private int[] firstSourceIndices;
+
+		private int[] sourceCounts;
+
+		private int[] weightOffsets;
+
+		private float[] weights;
+
+		public AxisCoverage(int sourceLength, int targetLength) {
+			this.firstSourceIndices = new int[targetLength];
+			this.sourceCounts = new int[targetLength];
+			this.weightOffsets = new int[targetLength];
+			double scale = sourceLength / (double) targetLength;
+			int maxCount = (int) Math.ceil(scale) + 1;
+			float[] w = new float[targetLength * maxCount];
+			int n = 0;
+			for (int i = 0; i < targetLength; i++) {
+				double from = i * scale;
+				double to = Math.min((i + 1) * scale, sourceLength);
+				int first = (int) Math.floor(from);
+				int end = Math.min((int) Math.ceil(to), sourceLength);
+				firstSourceIndices[i] = first;
+				sourceCounts[i] = end - first;
+				weightOffsets[i] = n;
+				for (int j = first; j < end; j++) {
+					w[n++] = (float) ((Math.min(to, j + 1) - Math.max(from, j)) / scale);
+				}
+			}
+			this.weights = Arrays.copyOf(w, n);
+		}
+
+		public int getFirstSourceIndex(int targetIndex) {
+			return firstSourceIndices[targetIndex];
+		}
+
+		public int getEndSourceIndex(int targetIndex) {
+			return firstSourceIndices[targetIndex] + sourceCounts[targetIndex];
+		}
+
+		public int getSourceCount(int targetIndex) {
+			return sourceCounts[targetIndex];
+		}
+
+		public float getWeight(int targetIndex, int i) {
+			return weights[weightOffsets[targetIndex] + i];
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -5,16 +5,29 @@ import java.awt.image.BufferedImage;
 
 import org.maia.util.ColorUtils;
 
+/**
+ * Samples an image at arbitrary coordinates
+ * 
+ * <p>
+ * The samplers created by the factory methods of this class hold no mutable state: every sample is computed from its
+ * coordinates and the pixels of the image alone. They are thread-safe, so a single sampler per source image can be
+ * shared by all threads of a parallel operation, provided the image is not modified while being sampled. Subclasses
+ * should follow the same rule.
+ * </p>
+ */
 public abstract class ImageSampler {
 
 	private BufferedImage image;
 
+	private ImageRaster raster;
+
 	private int imageWidth;
 
 	private int imageHeight;
 
 	protected ImageSampler(BufferedImage image) {
 		this.image = image;
+		this.raster = ImageRaster.createImageRaster(image);
 		this.imageWidth = ImageUtils.getWidth(image);
 		this.imageHeight = ImageUtils.getHeight(image);
 	}
@@ -31,6 +44,104 @@ public abstract class ImageSampler {
 	 */
 	public abstract int sampleRGB(float sx, float sy);
 
+	/**
+	 * Samples the image at a series of coordinates
+	 * 
+	 * @param sxs
+	 *            The x coordinates, each in the range [0.5f, image width - 0.5f]
+	 * @param sys
+	 *            The y coordinates, each in the range [0.5f, image height - 0.5f]
+	 * @param coordinateOffset
+	 *            The index in <code>sxs</code> and <code>sys</code> of the first coordinates
+	 * @param length
+	 *            The number of samples to take
+	 * @param argbs
+	 *            The array that receives the image samples, packed as integers in the ARGB color model
+	 * @param offset
+	 *            The index in <code>argbs</code> of the first sample
+	 * @see #sampleRGB(float, float)
+	 */
+	public void sampleRGB(float[] sxs, float[] sys, int coordinateOffset, int length, int[] argbs, int offset) {
+		for (int i = 0; i < length; i++) {
+			argbs[offset + i] = sampleRGB(sxs[coordinateOffset + i], sys[coordinateOffset + i]);
+		}
+	}
+
+	/**
+	 * Samples the image at equidistant coordinates along a line. Sample <code>i</code> is taken at coordinates
+	 * <code>(sx + i * dsx, sy + i * dsy)</code>
+	 * 
+	 * @param sx
+	 *            The x coordinate of the first sample
+	 * @param sy
+	 *            The y coordinate of the first sample
+	 * @param dsx
+	 *            The increment of the x coordinate between samples
+	 * @param dsy
+	 *            The increment of the y coordinate between samples
+	 * @param length
+	 *            The number of samples to take. All coordinates must lie in the image, as for
+	 *            {@link #sampleRGB(float, float)}
+	 * @param argbs
+	 *            The array that receives the image samples, packed as integers in the ARGB color model
+	 * @param offset
+	 *            The index in <code>argbs</code> of the first sample
+	 */
+	public void sampleRGBSpan(float sx, float sy, float dsx, float dsy, int length, int[] argbs, int offset) {
+		for (int i = 0; i < length; i++) {
+			argbs[offset + i] = sampleRGB(sx + i * dsx, sy + i * dsy);
+		}
+	}
+
+	/**
+	 * Samples the image at the specified coordinates, representing an area of the image of the specified size
+	 * 
+	 * <p>
+	 * The footprint is typically the size of a target pixel, mapped back onto the image. Samplers that support
+	 * minification, such as {@link #createTrilinearImageSampler(BufferedImage)}, average the image over the footprint.
+	 * The default implementation ignores the footprint.
+	 * </p>
+	 * 
+	 * @param sx
+	 *            The x coordinate, in the range [0.5f, image width - 0.5f]
+	 * @param sy
+	 *            The y coordinate, in the range [0.5f, image height - 0.5f]
+	 * @param footprint
+	 *            The extent of the sample, in pixels of the image. A footprint of 1 or less means no minification
+	 * @return The image sample, packed as an integer in the ARGB color model
+	 */
+	public int sampleRGB(float sx, float sy, float footprint) {
+		return sampleRGB(sx, sy);
+	}
+
+	/**
+	 * Samples the image at a series of coordinates, each representing an area of the image of the specified size
+	 * 
+	 * <p>
+	 * The default implementation ignores the footprints.
+	 * </p>
+	 * 
+	 * @param sxs
+	 *            The x coordinates, each in the range [0.5f, image width - 0.5f]
+	 * @param sys
+	 *            The y coordinates, each in the range [0.5f, image height - 0.5f]
+	 * @param footprints
+	 *            The extents of the samples, in pixels of the image
+	 * @param coordinateOffset
+	 *            The index in <code>sxs</code>, <code>sys</code> and <code>footprints</code> of the first coordinates
+	 * @param length
+	 *            The number of samples to take
+	 * @param argbs
+	 *            The array that receives the image samples, packed as integers in the ARGB color model
+	 * @param offset
+	 *            The index in <code>argbs</code> of the first sample
+	 * @see #sampleRGB(float, float, float)
+	 */
+	public void sampleRGB(float[] sxs, float[] sys, float[] footprints, int coordinateOffset, int length, int[] argbs,
+			int offset) {
+		sampleRGB(sxs, sys, coordinateOffset, length, argbs, offset);
+	}
+
 	public Color sampleColor(float sx, float sy) {
 		return new Color(sampleRGB(sx, sy), true);
 	}
@@ -39,6 +150,90 @@ public abstract class ImageSampler {
 		return new BilinearImageSampler(image);
 	}
 
+	/**
+	 * Creates a bilinear sampler that computes in fixed-point integer arithmetic
+	 * 
+	 * @param image
+	 *            The image to sample
+	 * @return A sampler that is faster than {@link #createBilinearImageSampler(BufferedImage)}, at a small loss of
+	 *         precision
+	 * @see #createFixedPointBilinearImageSampler(BufferedImage, boolean)
+	 */
+	public static ImageSampler createFixedPointBilinearImageSampler(BufferedImage image) {
+		return createFixedPointBilinearImageSampler(image, false);
+	}
+
+	/**
+	 * Creates a bilinear sampler that computes in fixed-point integer arithmetic
+	 * 
+	 * <p>
+	 * The sub-pixel offsets of a sample are quantized to 1/256th of a pixel, and the 4 neighbouring pixels are weighed
+	 * by integer multiplication on 2 color channels at once. The result deviates by no more than a few levels per
+	 * channel from that of {@link #createBilinearImageSampler(BufferedImage)}.
+	 * </p>
+	 * 
+	 * @param image
+	 *            The image to sample
+	 * @param premultiplied
+	 *            When <code>true</code>, the colors of the neighbouring pixels are weighed by their alpha. This avoids
+	 *            the color of (nearly) transparent pixels bleeding into the sample, as with a transparent border
+	 *            around an opaque shape, at the cost of some extra computation.
+	 * @return The fixed-point bilinear sampler
+	 */
+	public static ImageSampler createFixedPointBilinearImageSampler(BufferedImage image, boolean premultiplied) {
+		return new FixedPointBilinearImageSampler(image, premultiplied);
+	}
+
+	/**
+	 * Creates a sampler for strong minification, that samples a level of the image's mipmap pyramid matching the
+	 * footprint of each sample
+	 * 
+	 * <p>
+	 * The sampler interpolates bilinearly within the 2 levels closest to the footprint, and linearly between those
+	 * levels. Samples without a footprint, or with a footprint of 1 or less, are taken bilinearly from the image
+	 * itself.
+	 * </p>
+	 * 
+	 * @param image
+	 *            The image to sample
+	 * @return The trilinear sampler
+	 * @see #sampleRGB(float, float, float)
+	 * @see MipmapPyramid#getInstance(BufferedImage)
+	 */
+	public static ImageSampler createTrilinearImageSampler(BufferedImage image) {
+		return new TrilinearImageSampler(image, MipmapPyramid.getInstance(image));
+	}
+
+	/**
+	 * Creates a bicubic sampler, interpolating the 4 by 4 nearest pixels with the Catmull-Rom spline
+	 * 
+	 * <p>
+	 * Bicubic sampling gives sharper results than bilinear sampling when an image is enlarged, at a higher cost
+	 * </p>
+	 * 
+	 * @param image
+	 *            The image to sample
+	 * @return The bicubic sampler
+	 */
+	public static ImageSampler createBicubicImageSampler(BufferedImage image) {
+		return new KernelImageSampler(image, InterpolationKernel.BICUBIC);
+	}
+
+	/**
+	 * Creates a Lanczos sampler, interpolating the 6 by 6 nearest pixels with the Lanczos-3 kernel
+	 * 
+	 * <p>
+	 * Lanczos sampling preserves more detail than bicubic sampling when an image is enlarged, at a higher cost still
+	 * </p>
+	 * 
+	 * @param image
+	 *            The image to sample
+	 * @return The Lanczos sampler
+	 */
+	public static ImageSampler createLanczosImageSampler(BufferedImage image) {
+		return new KernelImageSampler(image, InterpolationKernel.LANCZOS3);
+	}
+
 	public static ImageSampler createHorizontalLinearImageSampler(BufferedImage image) {
 		return new HorizontalLinearImageSampler(image);
 	}
@@ -51,6 +246,10 @@ public abstract class ImageSampler {
 		return image;
 	}
 
+	protected ImageRaster getRaster() {
+		return raster;
+	}
+
 	protected int getImageWidth() {
 		return imageWidth;
 	}
@@ -61,23 +260,44 @@ public abstract class ImageSampler {
 
 	private static class BilinearImageSampler extends ImageSampler {
 
-		private int cx, cy;
-
-		private int minDx, maxDx;
-
-		private int minDy, maxDy;
-
-		private float cWeightX, cWeightY;
-
 		public BilinearImageSampler(BufferedImage image) {
 			super(image);
 		}
 
 		@Override
 		public int sampleRGB(float sx, float sy) {
-			update(sx, sy);
-			int width = getImageWidth();
-			int height = getImageHeight();
+			return sample(getRaster(), sx, sy);
+		}
+
+		@Override
+		public void sampleRGB(float[] sxs, float[] sys, int coordinateOffset, int length, int[] argbs, int offset) {
+			ImageRaster raster = getRaster();
+			for (int i = 0; i < length; i++) {
+				argbs[offset + i] = sample(raster, sxs[coordinateOffset + i], sys[coordinateOffset + i]);
+			}
+		}
+
+		@Override
+		public void sampleRGBSpan(float sx, float sy, float dsx, float dsy, int length, int[] argbs, int offset) {
+			ImageRaster raster = getRaster();
+			for (int i = 0; i < length; i++) {
+				argbs[offset + i] = sample(raster, sx + i * dsx, sy + i * dsy);
+			}
+		}
+
+		private static int sample(ImageRaster raster, float sx, float sy) {
+			int width = raster.getWidth();
+			int height = raster.getHeight();
+			int cx = (int) Math.floor(sx);
+			int cy = (int) Math.floor(sy);
+			float deltaX = sx - cx - 0.5f;
+			float deltaY = sy - cy - 0.5f;
+			int minDx = deltaX < 0f ? -1 : 0;
+			int maxDx = deltaX > 0f ? 1 : 0;
+			int minDy = deltaY < 0f ? -1 : 0;
+			int maxDy = deltaY > 0f ? 1 : 0;
+			float cWeightX = 1f - Math.abs(deltaX);
+			float cWeightY = 1f - Math.abs(deltaY);
 			float alpha = 0f;
 			float red = 0f;
 			float green = 0f;
@@ -87,7 +307,7 @@ public abstract class ImageSampler {
 				float wy = dy == 0 ? cWeightY : 1f - cWeightY;
 				for (int dx = minDx; dx <= maxDx; dx++) {
 					int x = Math.min(Math.max(cx + dx, 0), width - 1);
-					int argb = getImage().getRGB(x, y);
+					int argb = raster.getRGB(x, y);
 					float wx = dx == 0 ? cWeightX : 1f - cWeightX;
 					float w = wy * wx;
 					alpha += w * ((argb & 0xff000000) >>> 24);
@@ -103,33 +323,403 @@ public abstract class ImageSampler {
 			return (alphaInt << 24) | (redInt << 16) | (greenInt << 8) | blueInt;
 		}
 
-		private void update(float sx, float sy) {
-			this.cx = (int) Math.floor(sx);
-			this.cy = (int) Math.floor(sy);
-			float dx = sx - cx - 0.5f;
-			if (dx < 0f) {
-				this.minDx = -1;
-				this.maxDx = 0;
-			} else if (dx > 0f) {
-				this.minDx = 0;
-				this.maxDx = 1;
+	}
+
+	private static class TrilinearImageSampler extends ImageSampler {
+
+		private MipmapPyramid pyramid;
+
+		private float[] levelScaleXs;
+
+		private float[] levelScaleYs;
+
+		private static final float LOG2 = (float) Math.log(2.0);
+
+		public TrilinearImageSampler(BufferedImage image, MipmapPyramid pyramid) {
+			super(image);
+			this.pyramid = pyramid;
+			int levelCount = pyramid.getLevelCount();
+			this.levelScaleXs = new float[levelCount];
+			this.levelScaleYs = new float[levelCount];
+			for (int level = 0; level < levelCount; level++) {
+				levelScaleXs[level] = pyramid.getLevelWidth(level) / (float) getImageWidth();
+				levelScaleYs[level] = pyramid.getLevelHeight(level) / (float) getImageHeight();
+			}
+		}
+
+		@Override
+		public int sampleRGB(float sx, float sy) {
+			return BilinearImageSampler.sample(getRaster(), sx, sy);
+		}
+
+		@Override
+		public int sampleRGB(float sx, float sy, float footprint) {
+			if (!(footprint > 1f))
+				return BilinearImageSampler.sample(getRaster(), sx, sy);
+			int maxLevel = getPyramid().getLevelCount() - 1;
+			float lod = Math.min((float) Math.log(footprint) / LOG2, maxLevel);
+			int level = (int) lod;
+			float fraction = lod - level;
+			int argb = sampleLevel(level, sx, sy);
+			if (fraction > 0f) {
+				argb = ColorUtils.interpolate(argb, sampleLevel(level + 1, sx, sy), fraction);
+			}
+			return argb;
+		}
+
+		@Override
+		public void sampleRGB(float[] sxs, float[] sys, float[] footprints, int coordinateOffset, int length,
+				int[] argbs, int offset) {
+			for (int i = 0; i < length; i++) {
+				int j = coordinateOffset + i;
+				argbs[offset + i] = sampleRGB(sxs[j], sys[j], footprints[j]);
+			}
+		}
+
+		private int sampleLevel(int level, float sx, float sy) {
+			if (level == 0) {
+				return BilinearImageSampler.sample(getRaster(), sx, sy);
+			} else {
+				ImageRaster raster = getPyramid().getLevelRaster(level);
+				return BilinearImageSampler.sample(raster, sx * levelScaleXs[level], sy * levelScaleYs[level]);
+			}
+		}
+
+		private MipmapPyramid getPyramid() {
+			return pyramid;
+		}
+
+	}
+
+	private static class FixedPointBilinearImageSampler extends ImageSampler {
+
+		private static final int PHASE_BITS = 8;
+
+		private static final int PHASE_ONE = 1 << PHASE_BITS;
+
+		private static final int PHASE_MASK = PHASE_ONE - 1;
+
+		private static final int[] UNPREMULTIPLY_FACTORS = createUnpremultiplyFactors();
+
+		private boolean premultiplied;
+
+		public FixedPointBilinearImageSampler(BufferedImage image, boolean premultiplied) {
+			super(image);
+			this.premultiplied = premultiplied;
+		}
+
+		private static int[] createUnpremultiplyFactors() {
+			int[] factors = new int[256];
+			for (int alpha = 1; alpha < 256; alpha++) {
+				factors[alpha] = ((255 << 16) + alpha / 2) / alpha; // 16-bit fixed point 255 / alpha
+			}
+			return factors;
+		}
+
+		@Override
+		public int sampleRGB(float sx, float sy) {
+			return sample(getRaster(), sx, sy, isPremultiplied());
+		}
+
+		@Override
+		public void sampleRGB(float[] sxs, float[] sys, int coordinateOffset, int length, int[] argbs, int offset) {
+			ImageRaster raster = getRaster();
+			boolean premultiplied = isPremultiplied();
+			for (int i = 0; i < length; i++) {
+				argbs[offset + i] = sample(raster, sxs[coordinateOffset + i], sys[coordinateOffset + i], premultiplied);
+			}
+		}
+
+		@Override
+		public void sampleRGBSpan(float sx, float sy, float dsx, float dsy, int length, int[] argbs, int offset) {
+			ImageRaster raster = getRaster();
+			boolean premultiplied = isPremultiplied();
+			for (int i = 0; i < length; i++) {
+				argbs[offset + i] = sample(raster, sx + i * dsx, sy + i * dsy, premultiplied);
+			}
+		}
+
+		private static int sample(ImageRaster raster, float sx, float sy, boolean premultiplied) {
+			int width = raster.getWidth();
+			int height = raster.getHeight();
+			// fixed-point coordinates relative to the center of the upper-left pixel
+			int fx = (int) Math.floor((sx - 0.5f) * PHASE_ONE);
+			int fy = (int) Math.floor((sy - 0.5f) * PHASE_ONE);
+			int px = fx & PHASE_MASK;
+			int py = fy & PHASE_MASK;
+			int x0 = fx >> PHASE_BITS;
+			int y0 = fy >> PHASE_BITS;
+			int x1 = Math.min(Math.max(x0 + 1, 0), width - 1);
+			int y1 = Math.min(Math.max(y0 + 1, 0), height - 1);
+			x0 = Math.min(Math.max(x0, 0), width - 1);
+			y0 = Math.min(Math.max(y0, 0), height - 1);
+			int argb00 = raster.getRGB(x0, y0);
+			if (px == 0 && py == 0)
+				return argb00;
+			int argb01 = raster.getRGB(x1, y0);
+			int argb10 = raster.getRGB(x0, y1);
+			int argb11 = raster.getRGB(x1, y1);
+			if (premultiplied) {
+				argb00 = premultiply(argb00);
+				argb01 = premultiply(argb01);
+				argb10 = premultiply(argb10);
+				argb11 = premultiply(argb11);
+			}
+			// rounded weights that sum up to PHASE_ONE, w00 absorbing the rounding errors of the others
+			int w01 = (px * (PHASE_ONE - py) + PHASE_ONE / 2) >>> PHASE_BITS;
+			int w10 = ((PHASE_ONE - px) * py + PHASE_ONE / 2) >>> PHASE_BITS;
+			int w11 = (px * py + PHASE_ONE / 2) >>> PHASE_BITS;
+			int w00 = PHASE_ONE - w01 - w10 - w11;
+			if (w00 < 0) {
+				// only near the lower-right pixel, where w11 is the dominant weight
+				w11 += w00;
+				w00 = 0;
+			}
+			// 2 channels per integer, each in a 16-bit lane that holds at most 255 * PHASE_ONE
+			int ag = ((argb00 >>> 8) & 0x00ff00ff) * w00 + ((argb01 >>> 8) & 0x00ff00ff) * w01
+					+ ((argb10 >>> 8) & 0x00ff00ff) * w10 + ((argb11 >>> 8) & 0x00ff00ff) * w11;
+			int rb = (argb00 & 0x00ff00ff) * w00 + (argb01 & 0x00ff00ff) * w01 + (argb10 & 0x00ff00ff) * w10
+					+ (argb11 & 0x00ff00ff) * w11;
+			ag += 0x00800080; // rounding
+			rb += 0x00800080;
+			int argb = (ag & 0xff00ff00) | ((rb >>> 8) & 0x00ff00ff);
+			return premultiplied ? unpremultiply(argb) : argb;
+		}
+
+		private static int premultiply(int argb) {
+			int alpha = argb >>> 24;
+			if (alpha == 255) {
+				return argb;
+			} else if (alpha == 0) {
+				return 0;
+			} else {
+				int green = ((argb >>> 8) & 0xff) * alpha;
+				int rb = (argb & 0x00ff00ff) * alpha;
+				// division by 255 with rounding, on both 16-bit lanes of rb at once
+				green += 0x80;
+				rb += 0x00800080;
+				green = ((green + (green >>> 8)) >>> 8) & 0xff;
+				rb = ((rb + ((rb >>> 8) & 0x00ff00ff)) >>> 8) & 0x00ff00ff;
+				return (alpha << 24) | (green << 8) | rb;
+			}
+		}
+
+		private static int unpremultiply(int argb) {
+			int alpha = argb >>> 24;
+			if (alpha == 255) {
+				return argb;
+			} else if (alpha == 0) {
+				return 0;
+			} else {
+				int factor = UNPREMULTIPLY_FACTORS[alpha];
+				int red = Math.min((((argb >>> 16) & 0xff) * factor + 0x8000) >>> 16, 255);
+				int green = Math.min((((argb >>> 8) & 0xff) * factor + 0x8000) >>> 16, 255);
+				int blue = Math.min(((argb & 0xff) * factor + 0x8000) >>> 16, 255);
+				return (alpha << 24) | (red << 16) | (green << 8) | blue;
+			}
+		}
+
+		public boolean isPremultiplied() {
+			return premultiplied;
+		}
+
+	}
+
+	/**
+	 * Samples by a separable interpolation kernel. The color channels are weighted by alpha, so that transparent
+	 * pixels do not bleed their color into the sample
+	 */
+	private static class KernelImageSampler extends ImageSampler {
+
+		private InterpolationKernel kernel;
+
+		public KernelImageSampler(BufferedImage image, InterpolationKernel kernel) {
+			super(image);
+			this.kernel = kernel;
+		}
+
+		@Override
+		public int sampleRGB(float sx, float sy) {
+			return sample(getRaster(), getKernel(), sx, sy);
+		}
+
+		@Override
+		public void sampleRGB(float[] sxs, float[] sys, int coordinateOffset, int length, int[] argbs, int offset) {
+			ImageRaster raster = getRaster();
+			InterpolationKernel kernel = getKernel();
+			for (int i = 0; i < length; i++) {
+				argbs[offset + i] = sample(raster, kernel, sxs[coordinateOffset + i], sys[coordinateOffset + i]);
+			}
+		}
+
+		@Override
+		public void sampleRGBSpan(float sx, float sy, float dsx, float dsy, int length, int[] argbs, int offset) {
+			ImageRaster raster = getRaster();
+			InterpolationKernel kernel = getKernel();
+			for (int i = 0; i < length; i++) {
+				argbs[offset + i] = sample(raster, kernel, sx + i * dsx, sy + i * dsy);
+			}
+		}
+
+		private static int sample(ImageRaster raster, InterpolationKernel kernel, float sx, float sy) {
+			int width = raster.getWidth();
+			int height = raster.getHeight();
+			int taps = kernel.getTaps();
+			float u = sx - 0.5f;
+			float v = sy - 0.5f;
+			int ux = (int) Math.floor(u);
+			int vy = (int) Math.floor(v);
+			int wxOffset = kernel.getWeightsOffset(u - ux);
+			int wyOffset = kernel.getWeightsOffset(v - vy);
+			int x0 = ux - kernel.getRadius() + 1;
+			int y0 = vy - kernel.getRadius() + 1;
+			float[] weights = kernel.getWeights();
+			float alpha = 0f, red = 0f, green = 0f, blue = 0f;
+			for (int j = 0; j < taps; j++) {
+				int y = Math.min(Math.max(y0 + j, 0), height - 1);
+				float rowAlpha = 0f, rowRed = 0f, rowGreen = 0f, rowBlue = 0f;
+				for (int i = 0; i < taps; i++) {
+					int x = Math.min(Math.max(x0 + i, 0), width - 1);
+					int argb = raster.getRGB(x, y);
+					float a = (argb >>> 24) * weights[wxOffset + i];
+					rowAlpha += a;
+					rowRed += ((argb >>> 16) & 0xff) * a;
+					rowGreen += ((argb >>> 8) & 0xff) * a;
+					rowBlue += (argb & 0xff) * a;
+				}
+				float wy = weights[wyOffset + j];
+				alpha += rowAlpha * wy;
+				red += rowRed * wy;
+				green += rowGreen * wy;
+				blue += rowBlue * wy;
+			}
+			if (alpha < 0.5f)
+				return 0;
+			int alphaInt = Math.min(Math.round(alpha), 255);
+			int redInt = Math.min(Math.max(Math.round(red / alpha), 0), 255);
+			int greenInt = Math.min(Math.max(Math.round(green / alpha), 0), 255);
+			int blueInt = Math.min(Math.max(Math.round(blue / alpha), 0), 255);
+			return (alphaInt << 24) | (redInt << 16) | (greenInt << 8) | blueInt;
+		}
+
+		private InterpolationKernel getKernel() {
+			return kernel;
+		}
+
+	}
+
+	/**
+	 * Table of the weights of an interpolation kernel, for sub-pixel phases quantized to 1/256th of a pixel. The
+	 * weights of each phase are normalized to sum up to 1
+	 */
+	private static abstract class InterpolationKernel {
+
+		public static final InterpolationKernel BICUBIC = new BicubicInterpolationKernel();
+
+		public static final InterpolationKernel LANCZOS3 = new LanczosInterpolationKernel(3);
+
+		private static final int PHASES = 256;
+
+		private int radius;
+
+		private float[] weights; // for phase p, the weights of the taps are at index p * taps
+
+		protected InterpolationKernel(int radius) {
+			this.radius = radius;
+			this.weights = createWeights();
+		}
+
+		private float[] createWeights() {
+			int taps = getTaps();
+			float[] weights = new float[(PHASES + 1) * taps];
+			for (int p = 0; p <= PHASES; p++) {
+				double phase = p / (double) PHASES;
+				double sum = 0;
+				for (int i = 0; i < taps; i++) {
+					double w = evaluate(phase + getRadius() - 1 - i);
+					weights[p * taps + i] = (float) w;
+					sum += w;
+				}
+				for (int i = 0; i < taps; i++) {
+					weights[p * taps + i] /= sum;
+				}
+			}
+			return weights;
+		}
+
+		/**
+		 * Evaluates the kernel
+		 * 
+		 * @param distance
+		 *            The distance to the center of the kernel, in pixels
+		 * @return The kernel value, zero for distances beyond the radius
+		 */
+		protected abstract double evaluate(double distance);
+
+		/**
+		 * Returns the index of the first weight for a phase
+		 * 
+		 * @param phase
+		 *            The sub-pixel phase, in the range [0, 1]
+		 * @return The index in {@link #getWeights()} of the weight of the first tap
+		 */
+		public int getWeightsOffset(float phase) {
+			return Math.round(phase * PHASES) * getTaps();
+		}
+
+		public int getRadius() {
+			return radius;
+		}
+
+		public int getTaps() {
+			return 2 * radius;
+		}
+
+		public float[] getWeights() {
+			return weights;
+		}
+
+	}
+
+	private static class BicubicInterpolationKernel extends InterpolationKernel {
+
+		private static final double A = -0.5; // Catmull-Rom
+
+		public BicubicInterpolationKernel() {
+			super(2);
+		}
+
+		@Override
+		protected double evaluate(double distance) {
+			double x = Math.abs(distance);
+			if (x <= 1.0) {
+				return ((A + 2.0) * x - (A + 3.0)) * x * x + 1.0;
+			} else if (x < 2.0) {
+				return ((A * x - 5.0 * A) * x + 8.0 * A) * x - 4.0 * A;
 			} else {
-				this.minDx = 0;
-				this.maxDx = 0;
-			}
-			float dy = sy - cy - 0.5f;
-			if (dy < 0f) {
-				this.minDy = -1;
-				this.maxDy = 0;
-			} else if (dy > 0f) {
-				this.minDy = 0;
-				this.maxDy = 1;
+				return 0;
+			}
+		}
+
+	}
+
+	private static class LanczosInterpolationKernel extends InterpolationKernel {
+
+		public LanczosInterpolationKernel(int radius) {
+			super(radius);
+		}
+
+		@Override
+		protected double evaluate(double distance) {
+			double x = Math.abs(distance);
+			if (x < 1e-9) {
+				return 1.0;
+			} else if (x < getRadius()) {
+				double px = Math.PI * x;
+				return getRadius() * Math.sin(px) * Math.sin(px / getRadius()) / (px * px);
 			} else {
-				this.minDy = 0;
-				this.maxDy = 0;
+				return 0;
 			}
-			this.cWeightX = 1f - Math.abs(dx);
-			this.cWeightY = 1f - Math.abs(dy);
 		}
 
 	}
@@ -142,16 +732,17 @@ public abstract class ImageSampler {
 
 		@Override
 		public int sampleRGB(float sx, float sy) {
-			int cx = (int) Math.floor(sx);
-			int cy = (int) Math.floor(sy);
-			int crgb = getImage().getRGB(cx, cy);
+			ImageRaster raster = getRaster();
+			int cx = Math.min(Math.max((int) Math.floor(sx), 0), raster.getWidth() - 1);
+			int cy = Math.min(Math.max((int) Math.floor(sy), 0), raster.getHeight() - 1);
+			int crgb = raster.getRGB(cx, cy);
 			float delta = sx - cx - 0.5f;
 			float cw = 1f - Math.abs(delta);
 			if (cw == 1f) {
 				return crgb;
 			} else {
 				int dx = (int) Math.signum(delta);
-				int drgb = getImage().getRGB(cx + dx, cy);
+				int drgb = raster.getRGB(Math.min(Math.max(cx + dx, 0), raster.getWidth() - 1), cy);
 				return ColorUtils.interpolate(drgb, crgb, cw);
 			}
 		}
@@ -166,16 +757,17 @@ public abstract class ImageSampler {
 
 		@Override
 		public int sampleRGB(float sx, float sy) {
-			int cx = (int) Math.floor(sx);
-			int cy = (int) Math.floor(sy);
-			int crgb = getImage().getRGB(cx, cy);
+			ImageRaster raster = getRaster();
+			int cx = Math.min(Math.max((int) Math.floor(sx), 0), raster.getWidth() - 1);
+			int cy = Math.min(Math.max((int) Math.floor(sy), 0), raster.getHeight() - 1);
+			int crgb = raster.getRGB(cx, cy);
 			float delta = sy - cy - 0.5f;
 			float cw = 1f - Math.abs(delta);
 			if (cw == 1f) {
 				return crgb;
 			} else {
 				int dy = (int) Math.signum(delta);
-				int drgb = getImage().getRGB(cx, cy + dy);
+				int drgb = raster.getRGB(cx, Math.min(Math.max(cy + dy, 0), raster.getHeight() - 1));
 				return ColorUtils.interpolate(drgb, crgb, cw);
 			}
 		}
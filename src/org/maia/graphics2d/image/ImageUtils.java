@@ -6,6 +6,7 @@ import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.Insets;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
@@ -14,16 +15,41 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
 import javax.swing.ImageIcon;
 
+import org.maia.graphics2d.image.io.ImageWriteSettings;
+import org.maia.graphics2d.image.io.RawImageFormat;
 import org.maia.graphics2d.image.ops.ImageBlendingOperation;
+import org.maia.graphics2d.image.parallel.ImageTile;
+import org.maia.graphics2d.image.parallel.ImageTileProcessor;
+import org.maia.graphics2d.image.parallel.ImageTileScheduler;
 import org.maia.util.ColorUtils;
 
 public class ImageUtils {
 
+	private static final int GRAYSCALE_MEMO_SIZE = 256;
+
+	private static final Color TRANSPARENT = new Color(0, 0, 0, 0);
+
 	private ImageUtils() {
 	}
 
@@ -52,14 +78,25 @@ public class ImageUtils {
 	}
 
 	public static BufferedImage duplicateImage(BufferedImage image) {
+		return duplicateImage(image, ImageTileScheduler.SERIAL);
+	}
+
+	public static BufferedImage duplicateImage(BufferedImage image, ImageTileScheduler scheduler) {
 		int width = getWidth(image);
 		int height = getHeight(image);
 		BufferedImage duplicate = createImage(width, height);
-		for (int y = 0; y < height; y++) {
-			for (int x = 0; x < width; x++) {
-				duplicate.setRGB(x, y, image.getRGB(x, y));
+		final ImageRaster source = ImageRaster.createImageRaster(image);
+		final ImageRaster target = ImageRaster.createImageRaster(duplicate);
+		scheduler.process(width, height, new ImageTileProcessor() {
+
+			@Override
+			public void processTile(ImageTile tile) {
+				int[] buffer = new int[tile.getWidth()];
+				for (int y = tile.getY(); y < tile.getEndY(); y++) {
+					target.copyRow(source, tile.getX(), y, tile.getX(), y, tile.getWidth(), buffer);
+				}
 			}
-		}
+		});
 		return duplicate;
 	}
 
@@ -77,6 +114,81 @@ public class ImageUtils {
 		return image;
 	}
 
+	public static BufferedImage readFromFile(File file, Rectangle sourceRegion) {
+		return readFromFile(file, sourceRegion, null);
+	}
+
+	public static BufferedImage readFromFile(File file, Dimension targetSize) {
+		return readFromFile(file, null, targetSize);
+	}
+
+	/**
+	 * Reads part of an image from file, at a reduced size
+	 * 
+	 * <p>
+	 * Only the pixels inside <code>sourceRegion</code> are decoded. When a <code>targetSize</code> is given, the
+	 * decoder skips rows and columns (subsampling) as long as the decoded image is not smaller than the target size,
+	 * and the result is then scaled to exactly the target size.
+	 * </p>
+	 * 
+	 * @param file
+	 *            The image file
+	 * @param sourceRegion
+	 *            The region of the image to read. Can be <code>null</code> to read the full image
+	 * @param targetSize
+	 *            The size of the returned image. Can be <code>null</code> to keep the size of the source region
+	 * @return The image, or <code>null</code> when it could not be read
+	 */
+	public static BufferedImage readFromFile(File file, Rectangle sourceRegion, Dimension targetSize) {
+		BufferedImage image = null;
+		try {
+			ImageInputStream input = ImageIO.createImageInputStream(file);
+			if (input != null) {
+				try {
+					image = readFromImageInputStream(input, sourceRegion, targetSize, 1.0, 1.0);
+				} finally {
+					input.close();
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("Failed to read image from file '" + file.getPath() + "'");
+		}
+		return image;
+	}
+
+	/**
+	 * Reads an image from file, scaled by the given factors
+	 * 
+	 * <p>
+	 * This gives the same image size as {@link #scale(BufferedImage, double, double)} applied to the full image, but
+	 * when scaling down the decoder skips rows and columns (subsampling) so that fewer pixels are decoded
+	 * </p>
+	 * 
+	 * @param file
+	 *            The image file
+	 * @param sx
+	 *            The horizontal scale factor
+	 * @param sy
+	 *            The vertical scale factor
+	 * @return The scaled image, or <code>null</code> when it could not be read
+	 */
+	public static BufferedImage readFromFileScaled(File file, double sx, double sy) {
+		BufferedImage image = null;
+		try {
+			ImageInputStream input = ImageIO.createImageInputStream(file);
+			if (input != null) {
+				try {
+					image = readFromImageInputStream(input, null, null, sx, sy);
+				} finally {
+					input.close();
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("Failed to read image from file '" + file.getPath() + "'");
+		}
+		return image;
+	}
+
 	public static BufferedImage readFromResource(String resourcePath) {
 		BufferedImage image = null;
 		try {
@@ -102,22 +214,279 @@ public class ImageUtils {
 		return image;
 	}
 
+	/**
+	 * Reads part of an image from a stream, at a reduced size. The stream is closed afterwards
+	 * 
+	 * @param stream
+	 *            The stream to read from
+	 * @param sourceRegion
+	 *            The region of the image to read. Can be <code>null</code> to read the full image
+	 * @param targetSize
+	 *            The size of the returned image. Can be <code>null</code> to keep the size of the source region
+	 * @return The image, or <code>null</code> when it could not be read
+	 * @see #readFromFile(File, Rectangle, Dimension)
+	 */
+	public static BufferedImage readFromStream(InputStream stream, Rectangle sourceRegion, Dimension targetSize) {
+		BufferedImage image = null;
+		try {
+			ImageInputStream input = ImageIO.createImageInputStream(stream);
+			if (input != null) {
+				try {
+					image = readFromImageInputStream(input, sourceRegion, targetSize, 1.0, 1.0);
+				} finally {
+					input.close();
+				}
+			}
+			stream.close();
+		} catch (IOException e) {
+			System.err.println("Failed to read image from stream");
+			e.printStackTrace();
+		}
+		return image;
+	}
+
+	private static BufferedImage readFromImageInputStream(ImageInputStream input, Rectangle sourceRegion,
+			Dimension targetSize, double sx, double sy) throws IOException {
+		Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+		if (!readers.hasNext())
+			return null; // unknown format
+		ImageReader reader = readers.next();
+		try {
+			reader.setInput(input, true, true);
+			Rectangle bounds = new Rectangle(0, 0, reader.getWidth(0), reader.getHeight(0));
+			Rectangle region = sourceRegion != null ? sourceRegion.intersection(bounds) : bounds;
+			if (region.isEmpty())
+				throw new IOException("Source region " + sourceRegion + " lies outside the image " + bounds);
+			int targetWidth = region.width;
+			int targetHeight = region.height;
+			if (targetSize != null) {
+				targetWidth = targetSize.width;
+				targetHeight = targetSize.height;
+			} else if (sx != 1.0 || sy != 1.0) {
+				targetWidth = (int) Math.floor(region.width * sx);
+				targetHeight = (int) Math.floor(region.height * sy);
+			}
+			ImageReadParam param = reader.getDefaultReadParam();
+			if (!region.equals(bounds)) {
+				param.setSourceRegion(region);
+			}
+			int periodX = Math.max(region.width / Math.max(targetWidth, 1), 1);
+			int periodY = Math.max(region.height / Math.max(targetHeight, 1), 1);
+			if (periodX > 1 || periodY > 1) {
+				param.setSourceSubsampling(periodX, periodY, 0, 0);
+			}
+			BufferedImage image = reader.read(0, param);
+			if (targetSize == null && periodX == 1 && periodY == 1 && (sx != 1.0 || sy != 1.0)) {
+				image = scale(image, sx, sy);
+			} else if (getWidth(image) != targetWidth || getHeight(image) != targetHeight) {
+				image = scaleToSize(image, targetWidth, targetHeight);
+			}
+			return image;
+		} finally {
+			reader.dispose();
+		}
+	}
+
+	/**
+	 * Reads the size and color model of an image from the header of its file, without decoding the pixels
+	 * 
+	 * @param file
+	 *            The image file
+	 * @return The image header, or <code>null</code> when the file could not be read as an image
+	 */
+	public static ImageHeader probeImageHeader(File file) {
+		ImageHeader header = null;
+		try {
+			ImageInputStream input = ImageIO.createImageInputStream(file);
+			if (input != null) {
+				try {
+					Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+					if (readers.hasNext()) {
+						ImageReader reader = readers.next();
+						try {
+							reader.setInput(input, true, true);
+							ImageTypeSpecifier type = reader.getRawImageType(0);
+							header = new ImageHeader(file, reader.getFormatName(), reader.getWidth(0),
+									reader.getHeight(0), type != null ? type.getColorModel() : null);
+						} finally {
+							reader.dispose();
+						}
+					}
+				} finally {
+					input.close();
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("Failed to probe image file '" + file.getPath() + "'");
+		}
+		return header;
+	}
+
+	public static Map<File, ImageHeader> probeImageHeadersInDirectory(File directory) {
+		return probeImageHeadersInDirectory(directory, ImageTileScheduler.SERIAL);
+	}
+
+	/**
+	 * Reads the headers of all image files in a directory
+	 * 
+	 * @param directory
+	 *            The directory containing the image files. Subdirectories are not visited
+	 * @param scheduler
+	 *            The scheduler on whose executor the files are read, in parallel when it has a parallelism above 1
+	 * @return The headers of the files that could be read as an image, ordered by file name
+	 * @see #probeImageHeader(File)
+	 */
+	public static Map<File, ImageHeader> probeImageHeadersInDirectory(File directory, ImageTileScheduler scheduler) {
+		List<File> files = new Vector<File>();
+		File[] entries = directory.listFiles();
+		if (entries != null) {
+			Arrays.sort(entries);
+			for (File entry : entries) {
+				if (entry.isFile()) {
+					files.add(entry);
+				}
+			}
+		}
+		return probeImageHeaders(files, scheduler);
+	}
+
+	public static Map<File, ImageHeader> probeImageHeaders(List<File> files) {
+		return probeImageHeaders(files, ImageTileScheduler.SERIAL);
+	}
+
+	/**
+	 * Reads the headers of image files
+	 * 
+	 * @param files
+	 *            The image files
+	 * @param scheduler
+	 *            The scheduler on whose executor the files are read, in parallel when it has a parallelism above 1
+	 * @return The headers of the files that could be read as an image, in the order of <code>files</code>
+	 * @see #probeImageHeader(File)
+	 * @see ImageTileScheduler#getExecutor()
+	 */
+	public static Map<File, ImageHeader> probeImageHeaders(List<File> files, ImageTileScheduler scheduler) {
+		List<CompletableFuture<ImageHeader>> futures = new Vector<CompletableFuture<ImageHeader>>(files.size());
+		for (final File file : files) {
+			futures.add(CompletableFuture.supplyAsync(new Supplier<ImageHeader>() {
+
+				@Override
+				public ImageHeader get() {
+					return probeImageHeader(file);
+				}
+			}, scheduler.getExecutor()));
+		}
+		Map<File, ImageHeader> headers = new LinkedHashMap<File, ImageHeader>(files.size());
+		for (CompletableFuture<ImageHeader> future : futures) {
+			try {
+				ImageHeader header = future.join();
+				if (header != null) {
+					headers.put(header.getFile(), header);
+				}
+			} catch (CompletionException e) {
+				e.printStackTrace();
+			}
+		}
+		return headers;
+	}
+
+	/**
+	 * Reads an image from a file in the raw image format
+	 * 
+	 * @param file
+	 *            The raw image file
+	 * @return The image, or <code>null</code> when the file could not be read
+	 * @see RawImageFormat
+	 */
+	public static BufferedImage readFromRawFile(File file) {
+		BufferedImage image = null;
+		try {
+			image = RawImageFormat.read(file);
+		} catch (IOException e) {
+			System.err.println("Failed to read raw image from file '" + file.getPath() + "'");
+		}
+		return image;
+	}
+
+	/**
+	 * Writes an image to a file in the raw image format
+	 * 
+	 * @param image
+	 *            The image to write
+	 * @param file
+	 *            The raw image file
+	 * @see RawImageFormat
+	 */
+	public static void writeToRawFile(BufferedImage image, File file) {
+		try {
+			RawImageFormat.write(image, file);
+		} catch (IOException e) {
+			System.err.println("Failed to write raw image to file path '" + file.getPath() + "'");
+		}
+	}
+
 	public static void writeToFile(BufferedImage image, String filePath) {
 		writeToFile(image, new File(filePath));
 	}
 
 	public static void writeToFile(BufferedImage image, File file) {
+		try {
+			ImageIO.write(image, getImageFormat(file), file);
+		} catch (IOException e) {
+			System.err.println("Failed to write image to file path '" + file.getPath() + "'");
+		}
+	}
+
+	/**
+	 * Writes an image to a file, with the given encoder settings
+	 * 
+	 * @param image
+	 *            The image to write
+	 * @param file
+	 *            The file to write to. Its extension determines the image format
+	 * @param settings
+	 *            The encoder settings, or <code>null</code> for the default settings of the format
+	 * @throws IOException
+	 *             When there is no writer for the image format, or the image could not be written
+	 * @see org.maia.graphics2d.image.io.AsyncImageWriter
+	 */
+	public static void writeToFile(BufferedImage image, File file, ImageWriteSettings settings) throws IOException {
+		String format = getImageFormat(file);
+		Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+		if (!writers.hasNext())
+			throw new IOException("No image writer for format '" + format + "'");
+		ImageWriter writer = writers.next();
+		ImageWriteParam param = settings != null ? settings.createWriteParam(writer) : writer.getDefaultWriteParam();
+		if (file.exists()) {
+			file.delete(); // as ImageIO.write does, avoids trailing bytes of a longer previous file
+		}
+		ImageOutputStream output = ImageIO.createImageOutputStream(file);
+		if (output == null)
+			throw new IOException("Cannot create output stream for file path '" + file.getPath() + "'");
+		try {
+			writer.setOutput(output);
+			writer.write(null, new IIOImage(image, null, null), param);
+		} finally {
+			writer.dispose();
+			output.close();
+		}
+	}
+
+	/**
+	 * Returns the image format for a file, derived from its extension
+	 * 
+	 * @param file
+	 *            The image file
+	 * @return The lowercase extension of <code>file</code>, or "png" when it has no extension
+	 */
+	public static String getImageFormat(File file) {
 		String format = "png";
 		String filePath = file.getPath();
 		int i = filePath.lastIndexOf('.');
 		if (i > 0) {
 			format = filePath.substring(i + 1).toLowerCase();
 		}
-		try {
-			ImageIO.write(image, format, file);
-		} catch (IOException e) {
-			System.err.println("Failed to write image to file path '" + filePath + "'");
-		}
+		return format;
 	}
 
 	public static BufferedImage scale(BufferedImage image, double scale) {
@@ -125,8 +494,34 @@ public class ImageUtils {
 	}
 
 	public static BufferedImage scale(BufferedImage image, double sx, double sy) {
+		return scale(image, sx, sy, ImageTileScheduler.SERIAL);
+	}
+
+	/**
+	 * Scales an image
+	 * 
+	 * <p>
+	 * When the image is scaled down in both directions, the scaled image is obtained by area averaging. Otherwise, it
+	 * is obtained by bicubic interpolation.
+	 * </p>
+	 * 
+	 * @param image
+	 *            The image to scale
+	 * @param sx
+	 *            The scale factor in the horizontal direction
+	 * @param sy
+	 *            The scale factor in the vertical direction
+	 * @param scheduler
+	 *            The scheduler for processing tiles of the scaled image, when scaled down
+	 * @return A new image holding the scaled image
+	 * @see ImageResampler#downscale(BufferedImage, int, int, ImageTileScheduler)
+	 */
+	public static BufferedImage scale(BufferedImage image, double sx, double sy, ImageTileScheduler scheduler) {
 		int sw = (int) Math.floor(getWidth(image) * sx);
 		int sh = (int) Math.floor(getHeight(image) * sy);
+		if (isDownscale(image, sw, sh)) {
+			return ImageResampler.downscale(image, sw, sh, scheduler);
+		}
 		BufferedImage scaledImage = new BufferedImage(sw, sh, BufferedImage.TYPE_INT_ARGB);
 		Graphics2D graphics2D = scaledImage.createGraphics();
 		graphics2D.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
@@ -136,28 +531,56 @@ public class ImageUtils {
 		return scaledImage;
 	}
 
+	public static BufferedImage scaleToSize(BufferedImage image, int width, int height) {
+		return scaleToSize(image, width, height, ImageTileScheduler.SERIAL);
+	}
+
+	public static BufferedImage scaleToSize(BufferedImage image, int width, int height,
+			ImageTileScheduler scheduler) {
+		if (isDownscale(image, width, height)) {
+			return ImageResampler.downscale(image, width, height, scheduler);
+		}
+		BufferedImage scaledImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics2D = scaledImage.createGraphics();
+		graphics2D.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+		graphics2D.drawImage(image, 0, 0, width, height, null);
+		graphics2D.dispose();
+		return scaledImage;
+	}
+
+	private static boolean isDownscale(BufferedImage image, int width, int height) {
+		return width > 0 && height > 0 && width <= getWidth(image) && height <= getHeight(image);
+	}
+
 	public static BufferedImage pixelate(BufferedImage image, int pixelSize) {
 		return pixelate(image, pixelSize, pixelSize);
 	}
 
 	public static BufferedImage pixelate(BufferedImage image, int pixelWidth, int pixelHeight) {
-		if (pixelWidth <= 0)
-			throw new IllegalArgumentException("The pixelWidth must be strictly positive (" + pixelWidth + ")");
-		if (pixelHeight <= 0)
-			throw new IllegalArgumentException("The pixelHeight must be strictly positive (" + pixelHeight + ")");
+		return pixelate(image, pixelWidth, pixelHeight, ImageTileScheduler.SERIAL);
+	}
+
+	/**
+	 * Pixelates an image by filling blocks of pixels with their average color
+	 * 
+	 * @param image
+	 *            The image to pixelate
+	 * @param pixelWidth
+	 *            The width of a block
+	 * @param pixelHeight
+	 *            The height of a block
+	 * @param scheduler
+	 *            The scheduler for processing tiles of blocks
+	 * @return A new image of the same size holding the pixelated image, or <code>image</code> itself when blocks are
+	 *         single pixels
+	 * @see ImageResampler#pixelate(BufferedImage, int, int, ImageTileScheduler)
+	 */
+	public static BufferedImage pixelate(BufferedImage image, int pixelWidth, int pixelHeight,
+			ImageTileScheduler scheduler) {
 		if (pixelWidth == 1 && pixelHeight == 1) {
 			return image;
 		} else {
-			int width = getWidth(image);
-			int height = getHeight(image);
-			BufferedImage scaledImage = scale(image, 1.0 / pixelWidth, 1.0 / pixelHeight);
-			BufferedImage pixelatedImage = createImage(width, height);
-			Graphics2D graphics2D = pixelatedImage.createGraphics();
-			graphics2D.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
-					RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
-			graphics2D.drawImage(scaledImage, 0, 0, width, height, null);
-			graphics2D.dispose();
-			return pixelatedImage;
+			return ImageResampler.pixelate(image, pixelWidth, pixelHeight, scheduler);
 		}
 	}
 
@@ -174,44 +597,139 @@ public class ImageUtils {
 	}
 
 	public static BufferedImage convertToGrayscale(BufferedImage image) {
+		return convertToGrayscale(image, ImageTileScheduler.SERIAL);
+	}
+
+	public static BufferedImage convertToGrayscale(BufferedImage image, ImageTileScheduler scheduler) {
 		Dimension size = getSize(image);
 		BufferedImage grayscale = createImage(size);
-		for (int y = 0; y < size.height; y++) {
-			for (int x = 0; x < size.width; x++) {
-				Color color = new Color(image.getRGB(x, y), true);
-				double brightness = ColorUtils.getBrightness(color);
-				int gray = (int) Math.round(brightness * 255);
-				int alpha = color.getAlpha();
-				int rgba = (alpha << 24) | (gray << 16) | (gray << 8) | gray;
-				grayscale.setRGB(x, y, rgba);
+		final ImageRaster source = ImageRaster.createImageRaster(image);
+		final ImageRaster target = ImageRaster.createImageRaster(grayscale);
+		scheduler.process(size.width, size.height, new ImageTileProcessor() {
+
+			@Override
+			public void processTile(ImageTile tile) {
+				int[] row = new int[tile.getWidth()];
+				for (int y = tile.getY(); y < tile.getEndY(); y++) {
+					source.getRow(tile.getX(), y, tile.getWidth(), row, 0);
+					convertToGrayscale(row, 0, tile.getWidth());
+					target.setRow(tile.getX(), y, tile.getWidth(), row, 0);
+				}
 			}
-		}
+		});
 		return grayscale;
 	}
 
+	/**
+	 * Converts a run of pixels to grayscale, in place
+	 * 
+	 * @param argbs
+	 *            The pixels, packed as integers in the ARGB color model
+	 * @param offset
+	 *            The index of the first pixel
+	 * @param length
+	 *            The number of pixels to convert
+	 */
+	public static void convertToGrayscale(int[] argbs, int offset, int length) {
+		// Direct-mapped memo of recent conversions, as neighbouring pixels often share the same color
+		int[] memoKeys = new int[GRAYSCALE_MEMO_SIZE];
+		int[] memoValues = new int[GRAYSCALE_MEMO_SIZE];
+		Arrays.fill(memoValues, convertToGrayscale(0)); // all keys are initially 0
+		for (int i = offset; i < offset + length; i++) {
+			int argb = argbs[i];
+			int slot = (argb ^ (argb >>> 12)) & (GRAYSCALE_MEMO_SIZE - 1);
+			if (memoKeys[slot] != argb) {
+				memoKeys[slot] = argb;
+				memoValues[slot] = convertToGrayscale(argb);
+			}
+			argbs[i] = memoValues[slot];
+		}
+	}
+
+	private static int convertToGrayscale(int argb) {
+		double brightness = ColorUtils.getBrightness(new Color(argb, true));
+		int gray = (int) Math.round(brightness * 255);
+		int alpha = argb >>> 24;
+		return (alpha << 24) | (gray << 16) | (gray << 8) | gray;
+	}
+
 	public static BufferedImage combineByTransparency(BufferedImage frontImage, BufferedImage backImage) {
+		return combineByTransparency(frontImage, backImage, ImageTileScheduler.SERIAL);
+	}
+
+	public static BufferedImage combineByTransparency(BufferedImage frontImage, BufferedImage backImage,
+			ImageTileScheduler scheduler) {
+		return combineByTransparency(frontImage, backImage, scheduler, null);
+	}
+
+	/**
+	 * Combines a front image with a back image by transparency, and reports the pixels that changed
+	 * 
+	 * @param frontImage
+	 *            The front image
+	 * @param backImage
+	 *            The back image, of the same size as the front image
+	 * @param scheduler
+	 *            The scheduler for processing tiles of the images
+	 * @param dirtyRegion
+	 *            The region to which the pixels of the combined image that differ from the back image are added, or
+	 *            <code>null</code> when not needed
+	 * @return The combined image
+	 */
+	public static BufferedImage combineByTransparency(BufferedImage frontImage, BufferedImage backImage,
+			ImageTileScheduler scheduler, final DirtyRegion dirtyRegion) {
 		Dimension frontSize = getSize(frontImage);
 		Dimension backSize = getSize(backImage);
 		if (!frontSize.equals(backSize))
 			throw new IllegalArgumentException("Images are not the same size");
 		BufferedImage image = createImage(frontSize);
-		for (int y = 0; y < frontSize.height; y++) {
-			for (int x = 0; x < frontSize.width; x++) {
-				int frontRgba = frontImage.getRGB(x, y);
-				int frontAlpha = frontRgba >>> 24;
-				if (frontAlpha == 0xff) {
-					image.setRGB(x, y, frontRgba); // fully opaque
-				} else if (frontAlpha == 0x00) {
-					image.setRGB(x, y, backImage.getRGB(x, y)); // fully transparent
-				} else {
-					int backRgba = backImage.getRGB(x, y);
-					image.setRGB(x, y, ColorUtils.combineByTransparency(frontRgba, backRgba));
+		final ImageRaster front = ImageRaster.createImageRaster(frontImage);
+		final ImageRaster back = ImageRaster.createImageRaster(backImage);
+		final ImageRaster target = ImageRaster.createImageRaster(image);
+		scheduler.process(frontSize.width, frontSize.height, new ImageTileProcessor() {
+
+			@Override
+			public void processTile(ImageTile tile) {
+				int width = tile.getWidth();
+				int[] frontRow = new int[width];
+				int[] row = new int[width];
+				int[] backRow = dirtyRegion != null ? new int[width] : null;
+				for (int y = tile.getY(); y < tile.getEndY(); y++) {
+					front.getRow(tile.getX(), y, width, frontRow, 0);
+					back.getRow(tile.getX(), y, width, row, 0);
+					if (backRow != null) {
+						System.arraycopy(row, 0, backRow, 0, width);
+					}
+					combineByTransparency(frontRow, 0, row, 0, width);
+					target.setRow(tile.getX(), y, width, row, 0);
+					if (backRow != null) {
+						dirtyRegion.addChanges(tile.getX(), y, backRow, 0, row, 0, width);
+					}
 				}
 			}
-		}
+		});
 		return image;
 	}
 
+	/**
+	 * Combines a run of front pixels with a run of back pixels by transparency
+	 * 
+	 * @param frontArgbs
+	 *            The front pixels, packed as integers in the ARGB color model
+	 * @param frontOffset
+	 *            The index of the first front pixel
+	 * @param argbs
+	 *            The back pixels, packed as integers in the ARGB color model. On return, holds the combined pixels
+	 * @param offset
+	 *            The index of the first back pixel
+	 * @param length
+	 *            The number of pixels to combine
+	 * @see AlphaCompositingKernel#getInstance()
+	 */
+	public static void combineByTransparency(int[] frontArgbs, int frontOffset, int[] argbs, int offset, int length) {
+		AlphaCompositingKernel.getInstance().combineByTransparency(frontArgbs, frontOffset, argbs, offset, length);
+	}
+
 	public static BufferedImage blendInDecay(List<File> imageFiles, float decay) {
 		int n = imageFiles.size();
 		float[] weights = new float[n];
@@ -232,33 +750,99 @@ public class ImageUtils {
 	}
 
 	public static BufferedImage addPadding(BufferedImage image, Insets padding, Color padColor) {
-		int width = getWidth(image);
-		int height = getHeight(image);
+		return addPadding(image, padding, padColor, ImageTileScheduler.SERIAL);
+	}
+
+	public static BufferedImage addPadding(BufferedImage image, final Insets padding, Color padColor,
+			ImageTileScheduler scheduler) {
+		final int width = getWidth(image);
+		final int height = getHeight(image);
 		int padWidth = width + padding.left + padding.right;
 		int padHeight = height + padding.top + padding.bottom;
-		int padRgb = padColor.getRGB();
+		final int padRgb = padColor.getRGB();
 		BufferedImage padImage = createImage(padWidth, padHeight);
-		for (int y = 0; y < padHeight; y++) {
-			int yr = y - padding.top;
-			for (int x = 0; x < padWidth; x++) {
-				int xr = x - padding.left;
-				int rgb = (yr >= 0 && yr < height && xr >= 0 && xr < width) ? image.getRGB(xr, yr) : padRgb;
-				padImage.setRGB(x, y, rgb);
+		final ImageRaster source = ImageRaster.createImageRaster(image);
+		final ImageRaster target = ImageRaster.createImageRaster(padImage);
+		// Horizontal extent of the source within the padded image (padding may be negative)
+		final int x0 = Math.max(padding.left, 0);
+		final int x1 = Math.min(padding.left + width, padWidth);
+		scheduler.process(padWidth, padHeight, new ImageTileProcessor() {
+
+			@Override
+			public void processTile(ImageTile tile) {
+				int[] buffer = new int[tile.getWidth()];
+				int xs = Math.max(x0, tile.getX());
+				int xe = Math.min(x1, tile.getEndX());
+				for (int y = tile.getY(); y < tile.getEndY(); y++) {
+					int yr = y - padding.top;
+					if (yr >= 0 && yr < height && xs < xe) {
+						if (xs > tile.getX())
+							target.fill(tile.getX(), y, xs - tile.getX(), 1, padRgb);
+						target.copyRow(source, xs - padding.left, yr, xs, y, xe - xs, buffer);
+						if (xe < tile.getEndX())
+							target.fill(xe, y, tile.getEndX() - xe, 1, padRgb);
+					} else {
+						target.fill(tile.getX(), y, tile.getWidth(), 1, padRgb);
+					}
+				}
 			}
-		}
+		});
 		return padImage;
 	}
 
+	/**
+	 * Pads an image, or returns a view on part of the image when the padding only removes pixels
+	 * 
+	 * @param image
+	 *            The image to pad
+	 * @param padding
+	 *            The padding for each side. A negative padding removes pixels from that side
+	 * @param padColor
+	 *            The color of added pixels
+	 * @param independentCopy
+	 *            When <code>false</code> and none of the sides are padded positively, the result is a view that shares
+	 *            its pixels with <code>image</code>, and changes to either image are visible in the other. When
+	 *            <code>true</code>, the result is always a new image
+	 * @return The padded image
+	 */
+	public static BufferedImage addPadding(BufferedImage image, Insets padding, Color padColor,
+			boolean independentCopy) {
+		if (!independentCopy && padding.top <= 0 && padding.left <= 0 && padding.bottom <= 0 && padding.right <= 0) {
+			int width = getWidth(image) + padding.left + padding.right;
+			int height = getHeight(image) + padding.top + padding.bottom;
+			if (width > 0 && height > 0) {
+				return image.getSubimage(-padding.left, -padding.top, width, height);
+			}
+		}
+		return addPadding(image, padding, padColor);
+	}
+
 	public static BufferedImage cropSides(BufferedImage image, Insets cropping) {
+		return cropSides(image, cropping, true);
+	}
+
+	/**
+	 * Crops the sides of an image
+	 * 
+	 * @param image
+	 *            The image to crop
+	 * @param cropping
+	 *            The number of pixels to remove from each side. A negative cropping adds fully transparent pixels to
+	 *            that side
+	 * @param independentCopy
+	 *            When <code>false</code> and none of the sides are cropped negatively, the cropped image is a view that
+	 *            shares its pixels with <code>image</code>, and changes to either image are visible in the other. When
+	 *            <code>true</code>, the cropped image is always a new image
+	 * @return The cropped image, or <code>null</code> when no pixels remain
+	 */
+	public static BufferedImage cropSides(BufferedImage image, Insets cropping, boolean independentCopy) {
 		BufferedImage croppedImage = null;
 		Dimension size = getSize(image);
 		int croppedWidth = size.width - cropping.left - cropping.right;
 		int croppedHeight = size.height - cropping.top - cropping.bottom;
 		if (croppedWidth > 0 && croppedHeight > 0) {
-			croppedImage = createImage(croppedWidth, croppedHeight);
-			Graphics2D graphics2D = croppedImage.createGraphics();
-			graphics2D.drawImage(image, -cropping.left, -cropping.top, null);
-			graphics2D.dispose();
+			Insets padding = new Insets(-cropping.top, -cropping.left, -cropping.bottom, -cropping.right);
+			croppedImage = addPadding(image, padding, TRANSPARENT, independentCopy);
 		}
 		return croppedImage;
 	}
@@ -281,11 +865,7 @@ public class ImageUtils {
 				graphics2D.fillRect(x, y, width, height);
 				graphics2D.dispose();
 			} else {
-				for (int yi = y; yi < y + height; yi++) {
-					for (int xi = x; xi < x + width; xi++) {
-						image.setRGB(xi, yi, rgb);
-					}
-				}
+				ImageRaster.createImageRaster(image).fill(x, y, width, height, rgb);
 			}
 		}
 	}
@@ -299,11 +879,16 @@ public class ImageUtils {
 	}
 
 	public static boolean isFullyOpaque(BufferedImage image) {
+		if (!image.getColorModel().hasAlpha())
+			return true;
 		int width = getWidth(image);
 		int height = getHeight(image);
+		ImageRaster raster = ImageRaster.createImageRaster(image);
+		int[] row = new int[width];
 		for (int y = 0; y < height; y++) {
+			raster.getRow(0, y, width, row, 0);
 			for (int x = 0; x < width; x++) {
-				if (image.getRGB(x, y) >>> 24 < 0xff)
+				if (row[x] >>> 24 < 0xff)
 					return false;
 			}
 		}
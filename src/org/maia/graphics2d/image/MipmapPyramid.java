@@ -0,0 +1,143 @@
+package org.maia.graphics2d.image;
+
+import java.awt.image.BufferedImage;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Series of ever smaller versions of a source image, each level half the width and height of the previous level
+ * 
+ * <p>
+ * Level 0 is the source image itself, and the last level measures 1 by 1 pixel. The other levels are built lazily,
+ * on first access, by area averaging the previous level. They are much smaller than the source image, so that
+ * sampling a strongly reduced version of the source reads from a compact level rather than from scattered pixels of
+ * the full resolution image.
+ * </p>
+ * 
+ * <p>
+ * Pyramids are shared through {@link #getInstance(BufferedImage)}, which keeps one pyramid per source image for as
+ * long as the source image is in use. A pyramid reflects its source image at the time the levels were built, so the
+ * source image should not be modified once it is sampled through a pyramid. Pyramids are thread-safe.
+ * </p>
+ * 
+ * @see ImageResampler#downscale(BufferedImage, int, int)
+ * @see ImageSampler#createTrilinearImageSampler(BufferedImage)
+ */
+public class MipmapPyramid {
+
+	private Reference<BufferedImage> sourceImage; // weak, so that the shared pyramids do not keep their source alive
+
+	private int sourceWidth;
+
+	private int sourceHeight;
+
+	private int levelCount;
+
+	private AtomicReferenceArray<ImageRaster> levels; // index 0 is not used
+
+	private static Map<BufferedImage, MipmapPyramid> sharedPyramids = new WeakHashMap<BufferedImage, MipmapPyramid>();
+
+	private MipmapPyramid(BufferedImage sourceImage) {
+		this.sourceImage = new WeakReference<BufferedImage>(sourceImage);
+		this.sourceWidth = ImageUtils.getWidth(sourceImage);
+		this.sourceHeight = ImageUtils.getHeight(sourceImage);
+		this.levelCount = computeLevelCount(sourceWidth, sourceHeight);
+		this.levels = new AtomicReferenceArray<ImageRaster>(levelCount);
+	}
+
+	/**
+	 * Returns the pyramid of a source image
+	 * 
+	 * @param sourceImage
+	 *            The source image
+	 * @return The pyramid, shared with all other callers for the same source image
+	 */
+	public static synchronized MipmapPyramid getInstance(BufferedImage sourceImage) {
+		MipmapPyramid pyramid = sharedPyramids.get(sourceImage);
+		if (pyramid == null) {
+			pyramid = new MipmapPyramid(sourceImage);
+			sharedPyramids.put(sourceImage, pyramid);
+		}
+		return pyramid;
+	}
+
+	private static int computeLevelCount(int width, int height) {
+		int count = 1;
+		while (width > 1 || height > 1) {
+			width = (width + 1) / 2;
+			height = (height + 1) / 2;
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns a level of this pyramid, building it when needed
+	 * 
+	 * @param level
+	 *            The level, in the range [0, level count - 1]
+	 * @return The image at the given level. For level 0, this is the source image
+	 */
+	public BufferedImage getLevel(int level) {
+		if (level == 0) {
+			return sourceImage.get();
+		} else {
+			return getLevelRaster(level).getImage();
+		}
+	}
+
+	/**
+	 * Returns a level of this pyramid as a raster, building it when needed
+	 * 
+	 * @param level
+	 *            The level, in the range [1, level count - 1]
+	 * @return The raster of the image at the given level
+	 */
+	public ImageRaster getLevelRaster(int level) {
+		if (level <= 0 || level >= getLevelCount())
+			throw new IllegalArgumentException(
+					"The level must be in the range [1, " + (getLevelCount() - 1) + "] (" + level + ")");
+		ImageRaster raster = levels.get(level);
+		if (raster == null) {
+			raster = buildLevel(level);
+		}
+		return raster;
+	}
+
+	private synchronized ImageRaster buildLevel(int level) {
+		ImageRaster raster = levels.get(level);
+		if (raster == null) {
+			BufferedImage previousLevel = getLevel(level - 1);
+			if (previousLevel == null)
+				throw new IllegalStateException("The source image is no longer available");
+			raster = ImageRaster.createImageRaster(ImageResampler.downscale(previousLevel, getLevelWidth(level),
+					getLevelHeight(level)));
+			levels.set(level, raster);
+		}
+		return raster;
+	}
+
+	public int getLevelWidth(int level) {
+		return ((getSourceWidth() - 1) >> level) + 1;
+	}
+
+	public int getLevelHeight(int level) {
+		return ((getSourceHeight() - 1) >> level) + 1;
+	}
+
+	public int getSourceWidth() {
+		return sourceWidth;
+	}
+
+	public int getSourceHeight() {
+		return sourceHeight;
+	}
+
+	public int getLevelCount() {
+		return levelCount;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package org.maia.graphics2d.image;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Compositing kernel that blends as many pixels at once as the preferred vector species holds
+ * 
+ * <p>
+ * Requires the <code>jdk.incubator.vector</code> module, and is therefore only instantiated reflectively by
+ * {@link AlphaCompositingKernel#getVectorKernel()}. Pixels that do not fill a complete vector at the end of a run are
+ * combined by the scalar kernel.
+ * </p>
+ */
+class VectorAlphaCompositingKernel extends AlphaCompositingKernel {
+
+	private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+	private static final float INVERSE_255 = 1f / 255f;
+
+	public VectorAlphaCompositingKernel() {
+	}
+
+	@Override
+	public void combineByTransparency(int[] frontArgbs, int frontOffset, int[] argbs, int offset, int length) {
+		int bound = SPECIES.loopBound(length);
+		int i = 0;
+		for (; i < bound; i += SPECIES.length()) {
+			IntVector front = IntVector.fromArray(SPECIES, frontArgbs, frontOffset + i);
+			IntVector frontAlpha = front.lanewise(VectorOperators.LSHR, 24);
+			VectorMask<Integer> opaque = frontAlpha.eq(0xff);
+			VectorMask<Integer> transparent = frontAlpha.eq(0);
+			if (opaque.allTrue()) {
+				front.intoArray(argbs, offset + i);
+			} else if (!transparent.allTrue()) {
+				IntVector back = IntVector.fromArray(SPECIES, argbs, offset + i);
+				IntVector combined = combine(front, frontAlpha, back).blend(front, opaque).blend(back, transparent);
+				combined.intoArray(argbs, offset + i);
+			} // else all fully transparent, keep back pixels
+		}
+		if (i < length) {
+			getScalarKernel().combineByTransparency(frontArgbs, frontOffset + i, argbs, offset + i, length - i);
+		}
+	}
+
+	private IntVector combine(IntVector front, IntVector frontAlpha, IntVector back) {
+		FloatVector fa = toFloat(frontAlpha).mul(INVERSE_255);
+		FloatVector ba = toFloat(back.lanewise(VectorOperators.LSHR, 24)).mul(INVERSE_255).mul(fa.neg().add(1f));
+		FloatVector alpha = fa.add(ba);
+		// NaN in lanes where both are fully transparent, which are masked out by the caller
+		FloatVector frontWeight = fa.div(alpha);
+		FloatVector backWeight = ba.div(alpha);
+		IntVector red = combineChannel(front, back, 16, frontWeight, backWeight);
+		IntVector green = combineChannel(front, back, 8, frontWeight, backWeight);
+		IntVector blue = combineChannel(front, back, 0, frontWeight, backWeight);
+		IntVector a = toInt(alpha.mul(255f).add(0.5f)).min(0xff);
+		return a.lanewise(VectorOperators.LSHL, 24).or(red.lanewise(VectorOperators.LSHL, 16))
+				.or(green.lanewise(VectorOperators.LSHL, 8)).or(blue);
+	}
+
+	private IntVector combineChannel(IntVector front, IntVector back, int shift, FloatVector frontWeight,
+			FloatVector backWeight) {
+		FloatVector fc = toFloat(front.lanewise(VectorOperators.LSHR, shift).and(0xff));
+		FloatVector bc = toFloat(back.lanewise(VectorOperators.LSHR, shift).and(0xff));
+		return toInt(fc.mul(frontWeight).add(bc.mul(backWeight)).add(0.5f)).min(0xff);
+	}
+
+	private static FloatVector toFloat(IntVector vector) {
+		return (FloatVector) vector.convert(VectorOperators.I2F, 0);
+	}
+
+	private static IntVector toInt(FloatVector vector) {
+		return (IntVector) vector.convert(VectorOperators.F2I, 0);
+	}
+
+	@Override
+	public boolean isVectorized() {
+		return true;
+	}
+
+}
\ No newline at end of file
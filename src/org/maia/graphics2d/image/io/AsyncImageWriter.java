@@ -0,0 +1,240 @@
+package org.maia.graphics2d.image.io;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.maia.graphics2d.image.ImageUtils;
+
+/**
+ * Writes images to files in the background, on a pool of encoder threads
+ * 
+ * <p>
+ * The number of writes that are queued or being encoded is bounded by the capacity. When the capacity is reached,
+ * {@link #write(BufferedImage, File)} blocks the calling thread until a write completes, so that producers that are
+ * faster than the encoders do not accumulate images in memory.
+ * </p>
+ * 
+ * <p>
+ * An image must not be modified after it was submitted for writing, until its write has completed. Producers that
+ * reuse an image buffer should submit a duplicate instead.
+ * </p>
+ * 
+ * <p>
+ * The encoder settings are configured per image format, which is determined by the extension of the file.
+ * </p>
+ * 
+ * <p>
+ * The encoder threads do not keep the JVM alive. Call {@link #awaitAll()} or {@link #shutdown()} at the end of a
+ * batch, before exiting.
+ * </p>
+ * 
+ * @see ImageWriteSettings
+ */
+public class AsyncImageWriter {
+
+	private ExecutorService encoders;
+
+	private Semaphore capacity;
+
+	private Map<String, ImageWriteSettings> writeSettings;
+
+	private Set<CompletableFuture<File>> pendingWrites;
+
+	private AtomicInteger failedWriteCount;
+
+	private volatile boolean shutdown;
+
+	private static AtomicInteger instanceCounter = new AtomicInteger();
+
+	public AsyncImageWriter(int encoderThreads, int capacity) {
+		if (encoderThreads <= 0)
+			throw new IllegalArgumentException(
+					"The number of encoder threads must be strictly positive (" + encoderThreads + ")");
+		if (capacity < encoderThreads)
+			throw new IllegalArgumentException(
+					"The capacity must be at least the number of encoder threads (" + capacity + ")");
+		this.encoders = Executors.newFixedThreadPool(encoderThreads,
+				new EncoderThreadFactory(instanceCounter.incrementAndGet()));
+		this.capacity = new Semaphore(capacity);
+		this.writeSettings = new ConcurrentHashMap<String, ImageWriteSettings>();
+		this.pendingWrites = ConcurrentHashMap.newKeySet();
+		this.failedWriteCount = new AtomicInteger();
+	}
+
+	/**
+	 * Submits an image for writing to a file. Blocks while the writer is at full capacity
+	 * 
+	 * @param image
+	 *            The image to write, which must be left unchanged until the write has completed
+	 * @param file
+	 *            The file to write to. Its extension determines the image format
+	 * @return A future that completes with <code>file</code> when the image has been written, or exceptionally when
+	 *         the write failed, the writer was shut down or the calling thread was interrupted while waiting for
+	 *         capacity
+	 */
+	public CompletableFuture<File> write(final BufferedImage image, final File file) {
+		final CompletableFuture<File> future = new CompletableFuture<File>();
+		if (isShutdown()) {
+			fail(future, new IllegalStateException("The writer was shut down"));
+			return future;
+		}
+		try {
+			getCapacity().acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			fail(future, e);
+			return future;
+		}
+		getPendingWrites().add(future);
+		try {
+			getEncoders().execute(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						ImageUtils.writeToFile(image, file, getWriteSettings(ImageUtils.getImageFormat(file)));
+						future.complete(file);
+					} catch (IOException | RuntimeException e) {
+						System.err.println("Failed to write image to file path '" + file.getPath() + "'");
+						fail(future, e);
+					} finally {
+						release(future);
+					}
+				}
+			});
+		} catch (RuntimeException e) {
+			// rejected, as the writer was shut down
+			fail(future, e);
+			release(future);
+		}
+		return future;
+	}
+
+	private void fail(CompletableFuture<File> future, Throwable cause) {
+		failedWriteCount.incrementAndGet();
+		future.completeExceptionally(cause);
+	}
+
+	private void release(CompletableFuture<File> future) {
+		getPendingWrites().remove(future);
+		getCapacity().release();
+	}
+
+	/**
+	 * Waits until all writes that were submitted before this call have completed
+	 * 
+	 * @return <code>true</code> when all writes that completed since the previous call succeeded, <code>false</code>
+	 *         when at least one failed
+	 */
+	public boolean awaitAll() {
+		CompletableFuture<?>[] futures = getPendingWrites().toArray(new CompletableFuture<?>[0]);
+		try {
+			CompletableFuture.allOf(futures).join();
+		} catch (CompletionException e) {
+			// counted as failed
+		}
+		return failedWriteCount.getAndSet(0) == 0;
+	}
+
+	/**
+	 * Completes all pending writes and stops the encoder threads. Subsequent writes fail
+	 * 
+	 * <p>
+	 * New writes are rejected first, so that writes submitted concurrently either complete or fail, and do not
+	 * remain pending.
+	 * </p>
+	 */
+	public void shutdown() {
+		shutdown = true;
+		getEncoders().shutdown();
+		try {
+			while (!getEncoders().awaitTermination(1L, TimeUnit.MINUTES)) {
+				// waiting for the pending writes to drain
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public boolean isShutdown() {
+		return shutdown;
+	}
+
+	public int getPendingWriteCount() {
+		return getPendingWrites().size();
+	}
+
+	/**
+	 * Returns the encoder settings for an image format
+	 * 
+	 * @param format
+	 *            The image format, like "png"
+	 * @return The settings for <code>format</code>, or <code>null</code> when the default settings of the format
+	 *         apply
+	 */
+	public ImageWriteSettings getWriteSettings(String format) {
+		return writeSettings.get(format.toLowerCase());
+	}
+
+	/**
+	 * Sets the encoder settings for an image format
+	 * 
+	 * @param format
+	 *            The image format, like "png"
+	 * @param settings
+	 *            The settings for <code>format</code>, or <code>null</code> to apply the default settings of the
+	 *            format. Should not be modified afterwards, as it is read concurrently by the encoder threads
+	 */
+	public void setWriteSettings(String format, ImageWriteSettings settings) {
+		if (settings == null) {
+			writeSettings.remove(format.toLowerCase());
+		} else {
+			writeSettings.put(format.toLowerCase(), settings);
+		}
+	}
+
+	private ExecutorService getEncoders() {
+		return encoders;
+	}
+
+	private Semaphore getCapacity() {
+		return capacity;
+	}
+
+	private Set<CompletableFuture<File>> getPendingWrites() {
+		return pendingWrites;
+	}
+
+	private static class EncoderThreadFactory implements ThreadFactory {
+
+		private int instanceNumber;
+
+		private AtomicInteger threadCounter = new AtomicInteger();
+
+		public EncoderThreadFactory(int instanceNumber) {
+			this.instanceNumber = instanceNumber;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable,
+					"image-writer-" + instanceNumber + "-encoder-" + threadCounter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+}
\ No newline at end of file
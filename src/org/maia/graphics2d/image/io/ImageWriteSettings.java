@@ -0,0 +1,106 @@
+package org.maia.graphics2d.image.io;
+
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+
+/**
+ * Encoder settings for writing images in a particular format
+ * 
+ * <p>
+ * Settings that the writer of a format does not support are ignored. For PNG, a lower compression quality means a
+ * higher deflate level, giving smaller files that take longer to encode. A compression quality of 1 disables
+ * compression altogether, which is the fastest.
+ * </p>
+ * 
+ * @see AsyncImageWriter#setWriteSettings(String, ImageWriteSettings)
+ */
+public class ImageWriteSettings {
+
+	private String compressionType;
+
+	private float compressionQuality = Float.NaN;
+
+	private boolean progressive;
+
+	public ImageWriteSettings() {
+	}
+
+	public static ImageWriteSettings createWithCompressionQuality(float compressionQuality) {
+		ImageWriteSettings settings = new ImageWriteSettings();
+		settings.setCompressionQuality(compressionQuality);
+		return settings;
+	}
+
+	/**
+	 * Creates the parameters for an image writer according to these settings
+	 * 
+	 * @param writer
+	 *            The image writer
+	 * @return The parameters for <code>writer</code>
+	 */
+	public ImageWriteParam createWriteParam(ImageWriter writer) {
+		ImageWriteParam param = writer.getDefaultWriteParam();
+		if (param.canWriteCompressed() && (getCompressionType() != null || hasCompressionQuality())) {
+			param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+			String type = getCompressionType();
+			if (type == null && param.getCompressionTypes() != null && param.getCompressionTypes().length > 0) {
+				type = param.getCompressionTypes()[0];
+			}
+			if (type != null) {
+				param.setCompressionType(type);
+			}
+			if (hasCompressionQuality()) {
+				param.setCompressionQuality(getCompressionQuality());
+			}
+		}
+		if (param.canWriteProgressive()) {
+			param.setProgressiveMode(isProgressive() ? ImageWriteParam.MODE_DEFAULT : ImageWriteParam.MODE_DISABLED);
+		}
+		return param;
+	}
+
+	@Override
+	public String toString() {
+		return "ImageWriteSettings [compressionType=" + getCompressionType() + ", compressionQuality="
+				+ getCompressionQuality() + ", progressive=" + isProgressive() + "]";
+	}
+
+	public String getCompressionType() {
+		return compressionType;
+	}
+
+	public void setCompressionType(String compressionType) {
+		this.compressionType = compressionType;
+	}
+
+	public boolean hasCompressionQuality() {
+		return !Float.isNaN(getCompressionQuality());
+	}
+
+	public float getCompressionQuality() {
+		return compressionQuality;
+	}
+
+	/**
+	 * Sets the compression quality
+	 * 
+	 * @param compressionQuality
+	 *            The compression quality in the unit interval, where 0 stands for high compression and 1 for high
+	 *            quality, or <code>Float.NaN</code> to leave it to the writer
+	 */
+	public void setCompressionQuality(float compressionQuality) {
+		if (compressionQuality < 0f || compressionQuality > 1f)
+			throw new IllegalArgumentException(
+					"The compression quality must be in unit interval (" + compressionQuality + ")");
+		this.compressionQuality = compressionQuality;
+	}
+
+	public boolean isProgressive() {
+		return progressive;
+	}
+
+	public void setProgressive(boolean progressive) {
+		this.progressive = progressive;
+	}
+
+}
\ No newline at end of file
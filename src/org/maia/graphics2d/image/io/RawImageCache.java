@@ -0,0 +1,182 @@
+package org.maia.graphics2d.image.io;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.maia.graphics2d.image.ImageUtils;
+
+/**
+ * Cache of decoded image files in a directory, stored in the raw image format
+ * 
+ * <p>
+ * A cache entry is keyed by the canonical path, the length and the last-modified time of the source file, so that an
+ * entry is no longer used once its source file changes. On a cache miss, the source file is decoded and the entry is
+ * written, replacing the entries of earlier versions of that source file. On a cache hit, the entry is read by
+ * memory-mapping it, without decoding.
+ * </p>
+ * 
+ * <p>
+ * The shared cache is disabled by default. It is enabled either by {@link #setSharedInstance(RawImageCache)}, or at
+ * startup by the system property <code>maia.graphics2d.rawImageCache</code> holding the path of the cache directory.
+ * Instances are thread-safe, and the same directory can be shared by processes.
+ * </p>
+ * 
+ * @see RawImageFormat
+ */
+public class RawImageCache {
+
+	private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+	private File directory;
+
+	private static RawImageCache sharedInstance;
+
+	private static boolean sharedInstanceInitialized;
+
+	public RawImageCache(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Returns the shared cache
+	 * 
+	 * @return The shared cache, or <code>null</code> when it is disabled
+	 */
+	public static synchronized RawImageCache getSharedInstance() {
+		if (!sharedInstanceInitialized) {
+			String path = System.getProperty("maia.graphics2d.rawImageCache");
+			if (path != null && !path.isEmpty()) {
+				sharedInstance = new RawImageCache(new File(path));
+			}
+			sharedInstanceInitialized = true;
+		}
+		return sharedInstance;
+	}
+
+	/**
+	 * Enables or disables the shared cache
+	 * 
+	 * @param cache
+	 *            The shared cache, or <code>null</code> to disable it
+	 */
+	public static synchronized void setSharedInstance(RawImageCache cache) {
+		sharedInstance = cache;
+		sharedInstanceInitialized = true;
+	}
+
+	public BufferedImage readFromFile(File sourceFile) {
+		return readFromFileScaled(sourceFile, 1.0, 1.0);
+	}
+
+	/**
+	 * Reads an image file through this cache, scaled
+	 * 
+	 * @param sourceFile
+	 *            The image file
+	 * @param sx
+	 *            The scale factor in the horizontal direction
+	 * @param sy
+	 *            The scale factor in the vertical direction
+	 * @return The scaled image, or <code>null</code> when the source file could not be read
+	 * @see ImageUtils#readFromFileScaled(File, double, double)
+	 */
+	public BufferedImage readFromFileScaled(File sourceFile, double sx, double sy) {
+		boolean scaled = sx != 1.0 || sy != 1.0;
+		String prefix = getEntryPrefix(sourceFile, scaled ? "-" + sx + "x" + sy : "");
+		File entryFile = new File(getDirectory(), prefix + sourceFile.length() + "-" + sourceFile.lastModified() + "."
+				+ RawImageFormat.FILE_EXTENSION);
+		if (entryFile.isFile()) {
+			try {
+				return RawImageFormat.read(entryFile);
+			} catch (IOException e) {
+				System.err.println("Failed to read cached image '" + entryFile.getPath() + "': " + e.getMessage());
+			}
+		}
+		BufferedImage image = scaled ? ImageUtils.readFromFileScaled(sourceFile, sx, sy)
+				: ImageUtils.readFromFile(sourceFile);
+		if (image != null) {
+			storeEntry(image, entryFile, prefix);
+		}
+		return image;
+	}
+
+	private void storeEntry(BufferedImage image, File entryFile, String prefix) {
+		File tempFile = null;
+		try {
+			getDirectory().mkdirs();
+			removeEntries(prefix);
+			// written aside and moved in place, so that concurrent readers never see a partial entry
+			tempFile = File.createTempFile(prefix, TEMPORARY_FILE_SUFFIX, getDirectory());
+			RawImageFormat.write(image, tempFile);
+			Files.move(tempFile.toPath(), entryFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			System.err.println("Failed to cache image '" + entryFile.getPath() + "': " + e.getMessage());
+			if (tempFile != null) {
+				tempFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * Removes the entries with a prefix, as well as temporary files of entries that were never moved in place, such as
+	 * when the process was killed while storing them
+	 */
+	private void removeEntries(String prefix) {
+		File[] files = getDirectory().listFiles();
+		if (files != null) {
+			for (File file : files) {
+				String name = file.getName();
+				if (name.startsWith(prefix) && (name.endsWith("." + RawImageFormat.FILE_EXTENSION)
+						|| name.endsWith(TEMPORARY_FILE_SUFFIX))) {
+					file.delete();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes all entries from this cache, including stale temporary files
+	 */
+	public void clear() {
+		removeEntries("");
+	}
+
+	private String getEntryPrefix(File sourceFile, String variant) {
+		String path = sourceFile.getAbsolutePath();
+		try {
+			path = sourceFile.getCanonicalPath();
+		} catch (IOException e) {
+			// use absolute path
+		}
+		return toHex(digest(path + variant)) + "-";
+	}
+
+	private static byte[] digest(String text) {
+		try {
+			return MessageDigest.getInstance("SHA-1").digest(text.getBytes(StandardCharsets.UTF_8));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e); // every Java platform supports SHA-1
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(2 * bytes.length);
+		for (int i = 0; i < bytes.length; i++) {
+			sb.append(Character.forDigit((bytes[i] >>> 4) & 0xf, 16));
+			sb.append(Character.forDigit(bytes[i] & 0xf, 16));
+		}
+		return sb.toString();
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+}
\ No newline at end of file
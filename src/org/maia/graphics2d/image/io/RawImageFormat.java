@@ -0,0 +1,127 @@
+package org.maia.graphics2d.image.io;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.maia.graphics2d.image.ImageRaster;
+import org.maia.graphics2d.image.ImageUtils;
+
+/**
+ * Uncompressed file format for images, holding the pixels as packed ARGB integers
+ * 
+ * <p>
+ * A file starts with a header of 4 integers: the magic number, the format version, the width and the height of the
+ * image. The pixels follow in row-major order. All integers are in little-endian byte order, which is the native
+ * order on common hardware, so that reading is a plain copy of the memory-mapped file into the pixel array of the
+ * image.
+ * </p>
+ * 
+ * <p>
+ * This format trades disk space for speed: reading does not decode anything, unlike compressed formats such as PNG
+ * </p>
+ * 
+ * @see RawImageCache
+ */
+public class RawImageFormat {
+
+	public static final String FILE_EXTENSION = "argb";
+
+	private static final int MAGIC_NUMBER = 0x4247524d; // "MRGB" in little-endian
+
+	private static final int VERSION = 1;
+
+	private static final int HEADER_INTS = 4;
+
+	private static final int WRITE_BUFFER_INTS = 16 * 1024;
+
+	private RawImageFormat() {
+	}
+
+	/**
+	 * Reads an image from a raw file, by memory-mapping the file
+	 * 
+	 * @param file
+	 *            The raw image file
+	 * @return The image, of type <code>TYPE_INT_ARGB</code>
+	 * @throws IOException
+	 *             When the file could not be read, or is not a valid raw image file
+	 */
+	public static BufferedImage read(File file) throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			long fileSize = channel.size();
+			if (fileSize < HEADER_INTS * 4L)
+				throw new IOException("Not a raw image file: " + file.getPath());
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+			IntBuffer ints = mapped.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+			if (ints.get() != MAGIC_NUMBER)
+				throw new IOException("Not a raw image file: " + file.getPath());
+			int version = ints.get();
+			if (version != VERSION)
+				throw new IOException("Unsupported raw image version " + version + ": " + file.getPath());
+			int width = ints.get();
+			int height = ints.get();
+			if (width <= 0 || height <= 0 || (long) width * height > ints.remaining())
+				throw new IOException("Corrupt raw image file: " + file.getPath());
+			BufferedImage image = ImageUtils.createImage(width, height);
+			int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+			ints.get(pixels, 0, width * height);
+			return image;
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Writes an image to a raw file
+	 * 
+	 * @param image
+	 *            The image to write
+	 * @param file
+	 *            The raw image file, which is overwritten when it exists
+	 * @throws IOException
+	 *             When the file could not be written
+	 */
+	public static void write(BufferedImage image, File file) throws IOException {
+		int width = ImageUtils.getWidth(image);
+		int height = ImageUtils.getHeight(image);
+		ImageRaster raster = ImageRaster.createImageRaster(image);
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(4 * Math.max(WRITE_BUFFER_INTS, width))
+					.order(ByteOrder.LITTLE_ENDIAN);
+			IntBuffer ints = buffer.asIntBuffer();
+			ints.put(MAGIC_NUMBER).put(VERSION).put(width).put(height);
+			int[] row = new int[width];
+			for (int y = 0; y < height; y++) {
+				if (ints.remaining() < width) {
+					writeFully(channel, buffer, ints.position());
+					ints.clear();
+				}
+				raster.getRow(0, y, width, row, 0);
+				ints.put(row);
+			}
+			writeFully(channel, buffer, ints.position());
+		} finally {
+			channel.close();
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, int intCount) throws IOException {
+		buffer.clear();
+		buffer.limit(4 * intCount);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+}
\ No newline at end of file
@@ -88,18 +88,43 @@ public abstract class BandedImageDeformation<E extends ImageBand> extends NonLin
 		return bands;
 	}
 
-	private static class VerticalBandedImageDeformation extends BandedImageDeformation<VerticalImageBand>
-			implements HorizontalCoordinateProjection {
+	/**
+	 * Position of the current band along a row or column, kept per thread so that a deformation can be applied to
+	 * different parts of an image in parallel
+	 */
+	private static class BandCursor {
+
+		public int bandIndex = -1;
+
+		public float bandOffset;
+
+		public float bandSize;
+
+		public int sourceOffset;
 
-		private int bandIndex = -1;
+		public float previousCoordinate;
 
-		private float bandOffset;
+		public BandCursor() {
+		}
+
+	}
 
-		private float bandWidth;
+	private static class BandCursors extends ThreadLocal<BandCursor> {
 
-		private int sourceOffset;
+		public BandCursors() {
+		}
 
-		private float previousY;
+		@Override
+		protected BandCursor initialValue() {
+			return new BandCursor();
+		}
+
+	}
+
+	private static class VerticalBandedImageDeformation extends BandedImageDeformation<VerticalImageBand>
+			implements HorizontalCoordinateProjection {
+
+		private BandCursors cursors = new BandCursors();
 
 		public VerticalBandedImageDeformation() {
 			setHorizontalProjection(this);
@@ -107,20 +132,21 @@ public abstract class BandedImageDeformation<E extends ImageBand> extends NonLin
 
 		@Override
 		public float projectX(float x, float y, int width, int height) {
-			if (y != previousY || bandIndex < 0) {
-				bandIndex = 0;
-				bandOffset = 0f;
-				bandWidth = getBand(0).getTargetWidth(y, width, height);
-				sourceOffset = 0;
-				previousY = y;
+			BandCursor cursor = cursors.get();
+			if (y != cursor.previousCoordinate || cursor.bandIndex < 0 || x < cursor.bandOffset) {
+				cursor.bandIndex = 0;
+				cursor.bandOffset = 0f;
+				cursor.bandSize = getBand(0).getTargetWidth(y, width, height);
+				cursor.sourceOffset = 0;
+				cursor.previousCoordinate = y;
 			}
-			while (x >= bandOffset + bandWidth && bandIndex < getBands().size() - 1) {
-				sourceOffset += getBand(bandIndex).getSourceWidth();
-				bandOffset += bandWidth;
-				bandWidth = getBand(++bandIndex).getTargetWidth(y, width, height);
+			while (x >= cursor.bandOffset + cursor.bandSize && cursor.bandIndex < getBands().size() - 1) {
+				cursor.sourceOffset += getBand(cursor.bandIndex).getSourceWidth();
+				cursor.bandOffset += cursor.bandSize;
+				cursor.bandSize = getBand(++cursor.bandIndex).getTargetWidth(y, width, height);
 			}
-			float r = (x - bandOffset) / bandWidth;
-			float px = sourceOffset + r * getBand(bandIndex).getSourceWidth();
+			float r = (x - cursor.bandOffset) / cursor.bandSize;
+			float px = cursor.sourceOffset + r * getBand(cursor.bandIndex).getSourceWidth();
 			return Math.min(Math.max(px, 0.5f), width - 0.5f);
 		}
 
@@ -129,15 +155,7 @@ public abstract class BandedImageDeformation<E extends ImageBand> extends NonLin
 	private static class HorizontalBandedImageDeformation extends BandedImageDeformation<HorizontalImageBand>
 			implements VerticalCoordinateProjection {
 
-		private int bandIndex = -1;
-
-		private float bandOffset;
-
-		private float bandHeight;
-
-		private int sourceOffset;
-
-		private float previousX;
+		private BandCursors cursors = new BandCursors();
 
 		public HorizontalBandedImageDeformation() {
 			setVerticalProjection(this);
@@ -145,25 +163,56 @@ public abstract class BandedImageDeformation<E extends ImageBand> extends NonLin
 
 		@Override
 		public float projectY(float x, float y, int width, int height) {
-			if (x != previousX || bandIndex < 0) {
-				bandIndex = 0;
-				bandOffset = 0f;
-				bandHeight = getBand(0).getTargetHeight(x, width, height);
-				sourceOffset = 0;
-				previousX = x;
+			BandCursor cursor = cursors.get();
+			if (x != cursor.previousCoordinate || cursor.bandIndex < 0 || y < cursor.bandOffset) {
+				cursor.bandIndex = 0;
+				cursor.bandOffset = 0f;
+				cursor.bandSize = getBand(0).getTargetHeight(x, width, height);
+				cursor.sourceOffset = 0;
+				cursor.previousCoordinate = x;
 			}
-			while (y >= bandOffset + bandHeight && bandIndex < getBands().size() - 1) {
-				sourceOffset += getBand(bandIndex).getSourceHeight();
-				bandOffset += bandHeight;
-				bandHeight = getBand(++bandIndex).getTargetHeight(x, width, height);
+			while (y >= cursor.bandOffset + cursor.bandSize && cursor.bandIndex < getBands().size() - 1) {
+				cursor.sourceOffset += getBand(cursor.bandIndex).getSourceHeight();
+				cursor.bandOffset += cursor.bandSize;
+				cursor.bandSize = getBand(++cursor.bandIndex).getTargetHeight(x, width, height);
 			}
-			float r = (y - bandOffset) / bandHeight;
-			float py = sourceOffset + r * getBand(bandIndex).getSourceHeight();
+			float r = (y - cursor.bandOffset) / cursor.bandSize;
+			float py = cursor.sourceOffset + r * getBand(cursor.bandIndex).getSourceHeight();
 			return Math.min(Math.max(py, 0.5f), height - 0.5f);
 		}
 
 	}
 
+	/**
+	 * Position along the sequenced edges of a curved band, kept per thread
+	 */
+	private static class EdgeCursor {
+
+		public int firstEdgeSeqIndex;
+
+		public int secondEdgeSeqIndex;
+
+		public float previousCoordinate = Float.NaN;
+
+		public float previousTargetSize;
+
+		public EdgeCursor() {
+		}
+
+	}
+
+	private static class EdgeCursors extends ThreadLocal<EdgeCursor> {
+
+		public EdgeCursors() {
+		}
+
+		@Override
+		protected EdgeCursor initialValue() {
+			return new EdgeCursor();
+		}
+
+	}
+
 	public static abstract class ImageBand {
 
 		private int sourceSize;
@@ -214,17 +263,11 @@ public abstract class BandedImageDeformation<E extends ImageBand> extends NonLin
 
 		private PolyLine2D leftEdgeSequenced;
 
-		private int leftEdgeSeqIndex;
-
 		private Curve2D rightEdge;
 
 		private PolyLine2D rightEdgeSequenced;
 
-		private int rightEdgeSeqIndex;
-
-		private float previousY = Float.NaN;
-
-		private float previousTargetWidth;
+		private EdgeCursors cursors = new EdgeCursors();
 
 		public CurvedVerticalImageBand(int sourceWidth, Curve2D leftEdge, Curve2D rightEdge) {
 			super(sourceWidth);
@@ -234,55 +277,58 @@ public abstract class BandedImageDeformation<E extends ImageBand> extends NonLin
 
 		@Override
 		public float getTargetWidth(float y, int width, int height) {
-			if (y != previousY) {
-				if (y < previousY) {
-					leftEdgeSeqIndex = 0;
-					rightEdgeSeqIndex = 0;
+			EdgeCursor cursor = cursors.get();
+			if (y != cursor.previousCoordinate) {
+				if (y < cursor.previousCoordinate) {
+					cursor.firstEdgeSeqIndex = 0;
+					cursor.secondEdgeSeqIndex = 0;
 				}
-				float xLeft = intersectLeftEdgeAtY(y, width, height);
-				float xRight = intersectRightEdgeAtY(y, width, height);
-				previousY = y;
-				previousTargetWidth = Math.max(xRight - xLeft, 1f);
+				float xLeft = intersectLeftEdgeAtY(y, width, height, cursor);
+				float xRight = intersectRightEdgeAtY(y, width, height, cursor);
+				cursor.previousCoordinate = y;
+				cursor.previousTargetSize = Math.max(xRight - xLeft, 1f);
 			}
-			return previousTargetWidth;
+			return cursor.previousTargetSize;
 		}
 
-		private float intersectLeftEdgeAtY(float y, int width, int height) {
+		private float intersectLeftEdgeAtY(float y, int width, int height, EdgeCursor cursor) {
 			PolyLine2D leftEdgeSeq = getLeftEdgeSequenced(height);
 			if (leftEdgeSeq != null) {
 				int n = leftEdgeSeq.getEdges().size();
 				do {
-					Point2D p = leftEdgeSeq.getEdges().get(leftEdgeSeqIndex).intersectAtY(y);
+					Point2D p = leftEdgeSeq.getEdges().get(cursor.firstEdgeSeqIndex).intersectAtY(y);
 					if (p != null)
 						return (float) p.getX();
-				} while (++leftEdgeSeqIndex < n);
+				} while (++cursor.firstEdgeSeqIndex < n);
 			}
 			return 0f;
 		}
 
-		private float intersectRightEdgeAtY(float y, int width, int height) {
+		private float intersectRightEdgeAtY(float y, int width, int height, EdgeCursor cursor) {
 			PolyLine2D rightEdgeSeq = getRightEdgeSequenced(height);
 			if (rightEdgeSeq != null) {
 				int n = rightEdgeSeq.getEdges().size();
 				do {
-					Point2D p = rightEdgeSeq.getEdges().get(rightEdgeSeqIndex).intersectAtY(y);
+					Point2D p = rightEdgeSeq.getEdges().get(cursor.secondEdgeSeqIndex).intersectAtY(y);
 					if (p != null)
 						return (float) p.getX();
-				} while (++rightEdgeSeqIndex < n);
+				} while (++cursor.secondEdgeSeqIndex < n);
 			}
 			return width;
 		}
 
-		private PolyLine2D getLeftEdgeSequenced(int height) {
+		private synchronized PolyLine2D getLeftEdgeSequenced(int height) {
 			if (leftEdgeSequenced == null && getLeftEdge() != null) {
 				leftEdgeSequenced = getLeftEdge().toPolyLine(getSequencedEdgeVertexCount(height));
+				leftEdgeSequenced.getEdges(); // derive edges before sharing between threads
 			}
 			return leftEdgeSequenced;
 		}
 
-		private PolyLine2D getRightEdgeSequenced(int height) {
+		private synchronized PolyLine2D getRightEdgeSequenced(int height) {
 			if (rightEdgeSequenced == null && getRightEdge() != null) {
 				rightEdgeSequenced = getRightEdge().toPolyLine(getSequencedEdgeVertexCount(height));
+				rightEdgeSequenced.getEdges(); // derive edges before sharing between threads
 			}
 			return rightEdgeSequenced;
 		}
@@ -337,17 +383,11 @@ public abstract class BandedImageDeformation<E extends ImageBand> extends NonLin
 
 		private PolyLine2D topEdgeSequenced;
 
-		private int topEdgeSeqIndex;
-
 		private Curve2D bottomEdge;
 
 		private PolyLine2D bottomEdgeSequenced;
 
-		private int bottomEdgeSeqIndex;
-
-		private float previousX = Float.NaN;
-
-		private float previousTargetHeight;
+		private EdgeCursors cursors = new EdgeCursors();
 
 		public CurvedHorizontalImageBand(int sourceHeight, Curve2D topEdge, Curve2D bottomEdge) {
 			super(sourceHeight);
@@ -357,55 +397,58 @@ public abstract class BandedImageDeformation<E extends ImageBand> extends NonLin
 
 		@Override
 		public float getTargetHeight(float x, int width, int height) {
-			if (x != previousX) {
-				if (x < previousX) {
-					topEdgeSeqIndex = 0;
-					bottomEdgeSeqIndex = 0;
+			EdgeCursor cursor = cursors.get();
+			if (x != cursor.previousCoordinate) {
+				if (x < cursor.previousCoordinate) {
+					cursor.firstEdgeSeqIndex = 0;
+					cursor.secondEdgeSeqIndex = 0;
 				}
-				float yTop = intersectTopEdgeAtX(x, width, height);
-				float yBottom = intersectBottomEdgeAtX(x, width, height);
-				previousX = x;
-				previousTargetHeight = Math.max(yBottom - yTop, 1f);
+				float yTop = intersectTopEdgeAtX(x, width, height, cursor);
+				float yBottom = intersectBottomEdgeAtX(x, width, height, cursor);
+				cursor.previousCoordinate = x;
+				cursor.previousTargetSize = Math.max(yBottom - yTop, 1f);
 			}
-			return previousTargetHeight;
+			return cursor.previousTargetSize;
 		}
 
-		private float intersectTopEdgeAtX(float x, int width, int height) {
+		private float intersectTopEdgeAtX(float x, int width, int height, EdgeCursor cursor) {
 			PolyLine2D topEdgeSeq = getTopEdgeSequenced(width);
 			if (topEdgeSeq != null) {
 				int n = topEdgeSeq.getEdges().size();
 				do {
-					Point2D p = topEdgeSeq.getEdges().get(topEdgeSeqIndex).intersectAtX(x);
+					Point2D p = topEdgeSeq.getEdges().get(cursor.firstEdgeSeqIndex).intersectAtX(x);
 					if (p != null)
 						return (float) p.getY();
-				} while (++topEdgeSeqIndex < n);
+				} while (++cursor.firstEdgeSeqIndex < n);
 			}
 			return 0f;
 		}
 
-		private float intersectBottomEdgeAtX(float x, int width, int height) {
+		private float intersectBottomEdgeAtX(float x, int width, int height, EdgeCursor cursor) {
 			PolyLine2D bottomEdgeSeq = getBottomEdgeSequenced(width);
 			if (bottomEdgeSeq != null) {
 				int n = bottomEdgeSeq.getEdges().size();
 				do {
-					Point2D p = bottomEdgeSeq.getEdges().get(bottomEdgeSeqIndex).intersectAtX(x);
+					Point2D p = bottomEdgeSeq.getEdges().get(cursor.secondEdgeSeqIndex).intersectAtX(x);
 					if (p != null)
 						return (float) p.getY();
-				} while (++bottomEdgeSeqIndex < n);
+				} while (++cursor.secondEdgeSeqIndex < n);
 			}
 			return height;
 		}
 
-		private PolyLine2D getTopEdgeSequenced(int width) {
+		private synchronized PolyLine2D getTopEdgeSequenced(int width) {
 			if (topEdgeSequenced == null && getTopEdge() != null) {
 				topEdgeSequenced = getTopEdge().toPolyLine(getSequencedEdgeVertexCount(width));
+				topEdgeSequenced.getEdges(); // derive edges before sharing between threads
 			}
 			return topEdgeSequenced;
 		}
 
-		private PolyLine2D getBottomEdgeSequenced(int width) {
+		private synchronized PolyLine2D getBottomEdgeSequenced(int width) {
 			if (bottomEdgeSequenced == null && getBottomEdge() != null) {
 				bottomEdgeSequenced = getBottomEdge().toPolyLine(getSequencedEdgeVertexCount(width));
+				bottomEdgeSequenced.getEdges(); // derive edges before sharing between threads
 			}
 			return bottomEdgeSequenced;
 		}
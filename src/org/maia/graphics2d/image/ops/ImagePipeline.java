@@ -0,0 +1,426 @@
+package org.maia.graphics2d.image.ops;
+
+import java.awt.Color;
+import java.awt.Insets;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Vector;
+
+import org.maia.graphics2d.image.ImageRaster;
+import org.maia.graphics2d.image.ImageUtils;
+import org.maia.graphics2d.image.ops.convolute.ConvolutionMask;
+import org.maia.graphics2d.image.ops.convolute.ConvolutionMatrix;
+import org.maia.graphics2d.image.parallel.ImageTile;
+import org.maia.graphics2d.image.parallel.ImageTileProcessor;
+import org.maia.graphics2d.image.parallel.ImageTileScheduler;
+
+/**
+ * Chain of image operations that is applied in as few passes over the pixels as possible
+ * 
+ * <p>
+ * Consecutive pixel operations and paddings are fused, so that each pixel is read once, transformed by all of them
+ * and written once, without intermediate images. Only a neighbourhood operation such as a convolution needs the
+ * complete output of the preceding operations, and has it materialized in an image first.
+ * </p>
+ * 
+ * <p>
+ * The result is identical to applying the operations one after the other, like
+ * <code>ImageUtils.addPadding</code>, <code>ImageUtils.convertToGrayscale</code>,
+ * <code>ImageTransparencyOperation</code> and <code>ImageUtils.combineByTransparency</code>
+ * </p>
+ */
+public class ImagePipeline {
+
+	private List<Stage> stages;
+
+	public ImagePipeline() {
+		this.stages = new Vector<Stage>();
+	}
+
+	public ImagePipeline addPixelOperation(PixelOperation operation) {
+		getStages().add(new PixelStage(operation));
+		return this;
+	}
+
+	public ImagePipeline addPadding(Insets padding, Color padColor) {
+		getStages().add(new PaddingStage(padding, padColor));
+		return this;
+	}
+
+	public ImagePipeline addGrayscaleConversion() {
+		return addPixelOperation(new PixelOperation() {
+
+			@Override
+			public void apply(int[] argbs, int offset, int length, int x, int y) {
+				ImageUtils.convertToGrayscale(argbs, offset, length);
+			}
+		});
+	}
+
+	public ImagePipeline addTransparency(final float transparencyMultiplier) {
+		return addPixelOperation(new PixelOperation() {
+
+			@Override
+			public void apply(int[] argbs, int offset, int length, int x, int y) {
+				for (int i = offset; i < offset + length; i++) {
+					argbs[i] = ImageTransparencyOperation.applyToPixel(argbs[i], transparencyMultiplier);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Adds the combination by transparency with a back image, as the front image
+	 * 
+	 * @param backImage
+	 *            The back image. It must have the same size as the image at this stage of the pipeline
+	 * @return This pipeline
+	 */
+	public ImagePipeline addCombineByTransparency(BufferedImage backImage) {
+		getStages().add(new CombineStage(backImage));
+		return this;
+	}
+
+	public ImagePipeline addConvolution(ConvolutionMatrix matrix) {
+		return addConvolution(matrix, ConvolutionMask.ALL_INCLUSIVE);
+	}
+
+	public ImagePipeline addConvolution(ConvolutionMatrix matrix, ConvolutionMask mask) {
+		getStages().add(new ConvolutionStage(matrix, mask));
+		return this;
+	}
+
+	public BufferedImage apply(BufferedImage image) {
+		return apply(image, ImageTileScheduler.SERIAL);
+	}
+
+	/**
+	 * Applies the operations of this pipeline to an image
+	 * 
+	 * @param image
+	 *            The source image, which is left unchanged
+	 * @param scheduler
+	 *            The scheduler for processing tiles of the images. When tiles are processed in parallel, the pixel
+	 *            operations are invoked concurrently
+	 * @return A new image holding the result
+	 * @throws IllegalArgumentException
+	 *             When a back image to combine with differs in size from the image at that stage of the pipeline
+	 */
+	public BufferedImage apply(BufferedImage image, ImageTileScheduler scheduler) {
+		RowSource source = new ImageRowSource(ImageRaster.createImageRaster(image));
+		List<PixelOperation> pendingOperations = new Vector<PixelOperation>();
+		for (Stage stage : getStages()) {
+			if (stage instanceof PixelStage) {
+				pendingOperations.add(((PixelStage) stage).getOperation());
+			} else {
+				source = fuse(source, pendingOperations);
+				pendingOperations.clear();
+				if (stage instanceof PaddingStage) {
+					PaddingStage padding = (PaddingStage) stage;
+					source = new PaddedRowSource(source, padding.getPadding(), padding.getPadColor().getRGB());
+				} else if (stage instanceof ConvolutionStage) {
+					ConvolutionStage convolution = (ConvolutionStage) stage;
+					BufferedImage input = materialize(source, scheduler, false);
+					BufferedImage output = convolution.getMatrix().convoluteImage(input, convolution.getMask(),
+							scheduler);
+					source = new ImageRowSource(ImageRaster.createImageRaster(output));
+				} else if (stage instanceof CombineStage) {
+					ImageRaster back = ImageRaster.createImageRaster(((CombineStage) stage).getBackImage());
+					if (back.getWidth() != source.getWidth() || back.getHeight() != source.getHeight())
+						throw new IllegalArgumentException("The back image must have the same size as the front image ("
+								+ back.getWidth() + "x" + back.getHeight() + " versus " + source.getWidth() + "x"
+								+ source.getHeight() + ")");
+					source = new CombineRowSource(source, back);
+				}
+			}
+		}
+		return materialize(fuse(source, pendingOperations), scheduler, true);
+	}
+
+	private RowSource fuse(RowSource source, List<PixelOperation> operations) {
+		if (operations.isEmpty()) {
+			return source;
+		} else {
+			return new PixelOperationRowSource(source, operations.toArray(new PixelOperation[operations.size()]));
+		}
+	}
+
+	private BufferedImage materialize(final RowSource source, ImageTileScheduler scheduler, boolean newImage) {
+		if (!newImage && source instanceof ImageRowSource) {
+			return ((ImageRowSource) source).getRaster().getImage(); // no need to copy
+		}
+		BufferedImage image = ImageUtils.createImage(source.getWidth(), source.getHeight());
+		final ImageRaster raster = ImageRaster.createImageRaster(image);
+		scheduler.process(source.getWidth(), source.getHeight(), new ImageTileProcessor() {
+
+			@Override
+			public void processTile(ImageTile tile) {
+				int[] row = new int[tile.getWidth()];
+				for (int y = tile.getY(); y < tile.getEndY(); y++) {
+					source.readRow(tile.getX(), y, tile.getWidth(), row, 0);
+					raster.setRow(tile.getX(), y, tile.getWidth(), row, 0);
+				}
+			}
+		});
+		return image;
+	}
+
+	private List<Stage> getStages() {
+		return stages;
+	}
+
+	private static interface Stage {
+	}
+
+	private static class PixelStage implements Stage {
+
+		private PixelOperation operation;
+
+		public PixelStage(PixelOperation operation) {
+			this.operation = operation;
+		}
+
+		public PixelOperation getOperation() {
+			return operation;
+		}
+
+	}
+
+	private static class PaddingStage implements Stage {
+
+		private Insets padding;
+
+		private Color padColor;
+
+		public PaddingStage(Insets padding, Color padColor) {
+			this.padding = padding;
+			this.padColor = padColor;
+		}
+
+		public Insets getPadding() {
+			return padding;
+		}
+
+		public Color getPadColor() {
+			return padColor;
+		}
+
+	}
+
+	private static class ConvolutionStage implements Stage {
+
+		private ConvolutionMatrix matrix;
+
+		private ConvolutionMask mask;
+
+		public ConvolutionStage(ConvolutionMatrix matrix, ConvolutionMask mask) {
+			this.matrix = matrix;
+			this.mask = mask;
+		}
+
+		public ConvolutionMatrix getMatrix() {
+			return matrix;
+		}
+
+		public ConvolutionMask getMask() {
+			return mask;
+		}
+
+	}
+
+	private static class CombineStage implements Stage {
+
+		private BufferedImage backImage;
+
+		public CombineStage(BufferedImage backImage) {
+			this.backImage = backImage;
+		}
+
+		public BufferedImage getBackImage() {
+			return backImage;
+		}
+
+	}
+
+	/**
+	 * Produces the pixels of an image, row by row, without necessarily holding them in memory
+	 */
+	private static abstract class RowSource {
+
+		protected RowSource() {
+		}
+
+		public abstract void readRow(int x, int y, int length, int[] argbs, int offset);
+
+		public abstract int getWidth();
+
+		public abstract int getHeight();
+
+	}
+
+	private static class ImageRowSource extends RowSource {
+
+		private ImageRaster raster;
+
+		public ImageRowSource(ImageRaster raster) {
+			this.raster = raster;
+		}
+
+		@Override
+		public void readRow(int x, int y, int length, int[] argbs, int offset) {
+			getRaster().getRow(x, y, length, argbs, offset);
+		}
+
+		@Override
+		public int getWidth() {
+			return getRaster().getWidth();
+		}
+
+		@Override
+		public int getHeight() {
+			return getRaster().getHeight();
+		}
+
+		public ImageRaster getRaster() {
+			return raster;
+		}
+
+	}
+
+	private static class PaddedRowSource extends RowSource {
+
+		private RowSource source;
+
+		private Insets padding;
+
+		private int padRgb;
+
+		public PaddedRowSource(RowSource source, Insets padding, int padRgb) {
+			this.source = source;
+			this.padding = padding;
+			this.padRgb = padRgb;
+		}
+
+		@Override
+		public void readRow(int x, int y, int length, int[] argbs, int offset) {
+			int yr = y - padding.top;
+			// Part of the requested run that overlaps the source (padding may be negative)
+			int xs = Math.max(x, padding.left);
+			int xe = Math.min(x + length, padding.left + source.getWidth());
+			if (yr >= 0 && yr < source.getHeight() && xs < xe) {
+				for (int i = x; i < xs; i++) {
+					argbs[offset + i - x] = padRgb;
+				}
+				source.readRow(xs - padding.left, yr, xe - xs, argbs, offset + xs - x);
+				for (int i = xe; i < x + length; i++) {
+					argbs[offset + i - x] = padRgb;
+				}
+			} else {
+				for (int i = 0; i < length; i++) {
+					argbs[offset + i] = padRgb;
+				}
+			}
+		}
+
+		@Override
+		public int getWidth() {
+			return source.getWidth() + padding.left + padding.right;
+		}
+
+		@Override
+		public int getHeight() {
+			return source.getHeight() + padding.top + padding.bottom;
+		}
+
+	}
+
+	private static class PixelOperationRowSource extends RowSource {
+
+		private RowSource source;
+
+		private PixelOperation[] operations;
+
+		public PixelOperationRowSource(RowSource source, PixelOperation[] operations) {
+			this.source = source;
+			this.operations = operations;
+		}
+
+		@Override
+		public void readRow(int x, int y, int length, int[] argbs, int offset) {
+			source.readRow(x, y, length, argbs, offset);
+			for (int i = 0; i < operations.length; i++) {
+				operations[i].apply(argbs, offset, length, x, y);
+			}
+		}
+
+		@Override
+		public int getWidth() {
+			return source.getWidth();
+		}
+
+		@Override
+		public int getHeight() {
+			return source.getHeight();
+		}
+
+	}
+
+	private static class CombineRowSource extends RowSource {
+
+		private RowSource source;
+
+		private ImageRaster back;
+
+		private RowBuffers rowBuffers = new RowBuffers();
+
+		public CombineRowSource(RowSource source, ImageRaster back) {
+			this.source = source;
+			this.back = back;
+		}
+
+		@Override
+		public void readRow(int x, int y, int length, int[] argbs, int offset) {
+			source.readRow(x, y, length, argbs, offset);
+			int[] row = rowBuffers.getRow(length);
+			back.getRow(x, y, length, row, 0);
+			ImageUtils.combineByTransparency(argbs, offset, row, 0, length);
+			System.arraycopy(row, 0, argbs, offset, length);
+		}
+
+		@Override
+		public int getWidth() {
+			return source.getWidth();
+		}
+
+		@Override
+		public int getHeight() {
+			return source.getHeight();
+		}
+
+	}
+
+	/**
+	 * Row buffer per thread, so that rows of concurrently processed tiles can be combined without allocations
+	 */
+	private static class RowBuffers extends ThreadLocal<int[]> {
+
+		public RowBuffers() {
+		}
+
+		@Override
+		protected int[] initialValue() {
+			return new int[0];
+		}
+
+		public int[] getRow(int length) {
+			int[] row = get();
+			if (row.length < length) {
+				row = new int[length];
+				set(row);
+			}
+			return row;
+		}
+
+	}
+
+}
\ No newline at end of file
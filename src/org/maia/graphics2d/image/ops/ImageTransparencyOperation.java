@@ -4,6 +4,10 @@ import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 
+import org.maia.graphics2d.image.ImageRaster;
+import org.maia.graphics2d.image.parallel.ImageTile;
+import org.maia.graphics2d.image.parallel.ImageTileProcessor;
+import org.maia.graphics2d.image.parallel.ImageTileScheduler;
 import org.maia.util.ColorUtils;
 
 public class ImageTransparencyOperation {
@@ -18,22 +22,41 @@ public class ImageTransparencyOperation {
 	}
 
 	public BufferedImage apply() throws IOException {
+		return apply(ImageTileScheduler.SERIAL);
+	}
+
+	public BufferedImage apply(ImageTileScheduler scheduler) throws IOException {
 		BufferedImage source = getSourceImage();
 		int width = source.getWidth();
 		int height = source.getHeight();
 		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-		for (int y = 0; y < height; y++) {
-			for (int x = 0; x < width; x++) {
-				Color color = new Color(source.getRGB(x, y), true);
-				float transparency = ColorUtils.getTransparency(color);
-				transparency = 1f - (1f - transparency) * (1f - getTransparencyMultiplier());
-				Color newColor = ColorUtils.setTransparency(color, transparency);
-				image.setRGB(x, y, newColor.getRGB());
+		final ImageRaster sourceRaster = ImageRaster.createImageRaster(source);
+		final ImageRaster targetRaster = ImageRaster.createImageRaster(image);
+		scheduler.process(width, height, new ImageTileProcessor() {
+
+			@Override
+			public void processTile(ImageTile tile) {
+				int[] row = new int[tile.getWidth()];
+				for (int y = tile.getY(); y < tile.getEndY(); y++) {
+					sourceRaster.getRow(tile.getX(), y, tile.getWidth(), row, 0);
+					for (int i = 0; i < row.length; i++) {
+						row[i] = applyToPixel(row[i], getTransparencyMultiplier());
+					}
+					targetRaster.setRow(tile.getX(), y, tile.getWidth(), row, 0);
+				}
 			}
-		}
+		});
 		return image;
 	}
 
+	static int applyToPixel(int argb, float transparencyMultiplier) {
+		Color color = new Color(argb, true);
+		float transparency = ColorUtils.getTransparency(color);
+		transparency = 1f - (1f - transparency) * (1f - transparencyMultiplier);
+		Color newColor = ColorUtils.setTransparency(color, transparency);
+		return newColor.getRGB();
+	}
+
 	private BufferedImage getSourceImage() {
 		return sourceImage;
 	}
@@ -1,9 +1,15 @@
 package org.maia.graphics2d.image.ops;
 
 import java.awt.image.BufferedImage;
+import java.util.Arrays;
 
+import org.maia.graphics2d.image.DirtyRegion;
+import org.maia.graphics2d.image.ImageRaster;
 import org.maia.graphics2d.image.ImageSampler;
 import org.maia.graphics2d.image.ImageUtils;
+import org.maia.graphics2d.image.parallel.ImageTile;
+import org.maia.graphics2d.image.parallel.ImageTileProcessor;
+import org.maia.graphics2d.image.parallel.ImageTileScheduler;
 
 public class NonLinearImageDeformation {
 
@@ -11,6 +17,8 @@ public class NonLinearImageDeformation {
 
 	private VerticalCoordinateProjection verticalProjection;
 
+	private Interpolation interpolation = Interpolation.LINEAR;
+
 	public NonLinearImageDeformation() {
 		this(null, null); // produces an identical image
 	}
@@ -30,73 +38,190 @@ public class NonLinearImageDeformation {
 	}
 
 	public BufferedImage deform(BufferedImage sourceImage) {
+		return deform(sourceImage, ImageTileScheduler.SERIAL);
+	}
+
+	/**
+	 * Deforms an image, processing tiles of the image as scheduled
+	 * 
+	 * <p>
+	 * When the scheduler processes tiles in parallel, the coordinate projections are invoked concurrently and need to
+	 * be thread-safe. This is the case for the projections of a <code>BandedImageDeformation</code>
+	 * </p>
+	 * 
+	 * @param sourceImage
+	 *            The image to deform
+	 * @param scheduler
+	 *            The scheduler for processing tiles of the image
+	 * @return The deformed image
+	 */
+	public BufferedImage deform(BufferedImage sourceImage, ImageTileScheduler scheduler) {
+		return deform(sourceImage, scheduler, null);
+	}
+
+	/**
+	 * Deforms an image, and reports the pixels that changed
+	 * 
+	 * @param sourceImage
+	 *            The image to deform
+	 * @param scheduler
+	 *            The scheduler for processing tiles of the image
+	 * @param dirtyRegion
+	 *            The region to which the pixels of the deformed image that differ from the source image are added,
+	 *            or <code>null</code> when not needed
+	 * @return The deformed image, of the same size as the source image
+	 * @see #deform(BufferedImage, ImageTileScheduler)
+	 */
+	public BufferedImage deform(BufferedImage sourceImage, ImageTileScheduler scheduler, DirtyRegion dirtyRegion) {
 		if (getHorizontalProjection() != null && getVerticalProjection() != null) {
-			return deformBidirectionally(sourceImage);
+			return deformBidirectionally(sourceImage, scheduler, dirtyRegion);
 		} else if (getHorizontalProjection() != null) {
-			return deformHorizontally(sourceImage);
+			return deformHorizontally(sourceImage, scheduler, dirtyRegion);
 		} else if (getVerticalProjection() != null) {
-			return deformVertically(sourceImage);
+			return deformVertically(sourceImage, scheduler, dirtyRegion);
 		} else {
 			return sourceImage;
 		}
 	}
 
-	private BufferedImage deformHorizontally(BufferedImage sourceImage) {
-		int width = ImageUtils.getWidth(sourceImage);
-		int height = ImageUtils.getHeight(sourceImage);
+	private BufferedImage deformHorizontally(BufferedImage sourceImage, ImageTileScheduler scheduler,
+			final DirtyRegion dirtyRegion) {
+		final int width = ImageUtils.getWidth(sourceImage);
+		final int height = ImageUtils.getHeight(sourceImage);
 		BufferedImage targetImage = ImageUtils.createImage(width, height);
-		ImageSampler imageSampler = ImageSampler.createHorizontalLinearImageSampler(sourceImage);
-		HorizontalCoordinateProjection projectionX = getHorizontalProjection();
-		for (int yi = 0; yi < height; yi++) {
-			float yc = 0.5f + yi;
-			for (int xi = 0; xi < width; xi++) {
-				float xc = 0.5f + xi;
-				float pxc = projectionX.projectX(xc, yc, width, height);
-				int argb = imageSampler.sampleRGB(pxc, yc);
-				targetImage.setRGB(xi, yi, argb);
+		final ImageRaster targetRaster = ImageRaster.createImageRaster(targetImage);
+		final HorizontalCoordinateProjection projectionX = getHorizontalProjection();
+		final ImageSampler imageSampler = Interpolation.LINEAR.equals(getInterpolation())
+				? ImageSampler.createHorizontalLinearImageSampler(sourceImage)
+				: createInterpolatingImageSampler(sourceImage);
+		final ImageRaster sourceRaster = ImageRaster.createImageRaster(sourceImage);
+		scheduler.process(width, height, new ImageTileProcessor() {
+
+			@Override
+			public void processTile(ImageTile tile) {
+				int n = tile.getWidth();
+				float[] pxcs = new float[n];
+				float[] ycs = new float[n];
+				int[] row = new int[n];
+				int[] sourceRow = dirtyRegion != null ? new int[n] : null;
+				for (int yi = tile.getY(); yi < tile.getEndY(); yi++) {
+					float yc = 0.5f + yi;
+					for (int i = 0; i < n; i++) {
+						float xc = 0.5f + (tile.getX() + i);
+						pxcs[i] = projectionX.projectX(xc, yc, width, height);
+						ycs[i] = yc;
+					}
+					imageSampler.sampleRGB(pxcs, ycs, 0, n, row, 0);
+					targetRaster.setRow(tile.getX(), yi, n, row, 0);
+					if (sourceRow != null) {
+						sourceRaster.getRow(tile.getX(), yi, n, sourceRow, 0);
+						dirtyRegion.addChanges(tile.getX(), yi, sourceRow, 0, row, 0, n);
+					}
+				}
 			}
-		}
+		});
 		return targetImage;
 	}
 
-	private BufferedImage deformVertically(BufferedImage sourceImage) {
-		int width = ImageUtils.getWidth(sourceImage);
-		int height = ImageUtils.getHeight(sourceImage);
+	private BufferedImage deformVertically(BufferedImage sourceImage, ImageTileScheduler scheduler,
+			final DirtyRegion dirtyRegion) {
+		final int width = ImageUtils.getWidth(sourceImage);
+		final int height = ImageUtils.getHeight(sourceImage);
 		BufferedImage targetImage = ImageUtils.createImage(width, height);
-		ImageSampler imageSampler = ImageSampler.createVerticalLinearImageSampler(sourceImage);
-		VerticalCoordinateProjection projectionY = getVerticalProjection();
-		for (int xi = 0; xi < width; xi++) {
-			float xc = 0.5f + xi;
-			for (int yi = 0; yi < height; yi++) {
-				float yc = 0.5f + yi;
-				float pyc = projectionY.projectY(xc, yc, width, height);
-				int argb = imageSampler.sampleRGB(xc, pyc);
-				targetImage.setRGB(xi, yi, argb);
+		final ImageRaster targetRaster = ImageRaster.createImageRaster(targetImage);
+		final VerticalCoordinateProjection projectionY = getVerticalProjection();
+		final ImageSampler imageSampler = Interpolation.LINEAR.equals(getInterpolation())
+				? ImageSampler.createVerticalLinearImageSampler(sourceImage)
+				: createInterpolatingImageSampler(sourceImage);
+		final ImageRaster sourceRaster = ImageRaster.createImageRaster(sourceImage);
+		scheduler.process(width, height, new ImageTileProcessor() {
+
+			@Override
+			public void processTile(ImageTile tile) {
+				int n = tile.getHeight();
+				float[] xcs = new float[n];
+				float[] pycs = new float[n];
+				int[] column = new int[n];
+				// the changed columns of each row of the tile, added to the dirty region once the tile is done
+				int[] changedFrom = null, changedTo = null;
+				if (dirtyRegion != null) {
+					changedFrom = new int[n];
+					changedTo = new int[n];
+					Arrays.fill(changedFrom, tile.getEndX());
+					Arrays.fill(changedTo, tile.getX());
+				}
+				for (int xi = tile.getX(); xi < tile.getEndX(); xi++) {
+					float xc = 0.5f + xi;
+					for (int i = 0; i < n; i++) {
+						float yc = 0.5f + (tile.getY() + i);
+						xcs[i] = xc;
+						pycs[i] = projectionY.projectY(xc, yc, width, height);
+					}
+					imageSampler.sampleRGB(xcs, pycs, 0, n, column, 0);
+					for (int i = 0; i < n; i++) {
+						targetRaster.setRGB(xi, tile.getY() + i, column[i]);
+						if (changedFrom != null && sourceRaster.getRGB(xi, tile.getY() + i) != column[i]) {
+							changedFrom[i] = Math.min(changedFrom[i], xi);
+							changedTo[i] = xi + 1;
+						}
+					}
+				}
+				if (dirtyRegion != null) {
+					dirtyRegion.addSpans(tile.getY(), n, changedFrom, changedTo, 0);
+				}
 			}
-		}
+		});
 		return targetImage;
 	}
 
-	private BufferedImage deformBidirectionally(BufferedImage sourceImage) {
-		int width = ImageUtils.getWidth(sourceImage);
-		int height = ImageUtils.getHeight(sourceImage);
+	private BufferedImage deformBidirectionally(BufferedImage sourceImage, ImageTileScheduler scheduler,
+			final DirtyRegion dirtyRegion) {
+		final int width = ImageUtils.getWidth(sourceImage);
+		final int height = ImageUtils.getHeight(sourceImage);
 		BufferedImage targetImage = ImageUtils.createImage(width, height);
-		ImageSampler imageSampler = ImageSampler.createBilinearImageSampler(sourceImage);
-		HorizontalCoordinateProjection projectionX = getHorizontalProjection();
-		VerticalCoordinateProjection projectionY = getVerticalProjection();
-		for (int yi = 0; yi < height; yi++) {
-			float yc = 0.5f + yi;
-			for (int xi = 0; xi < width; xi++) {
-				float xc = 0.5f + xi;
-				float pxc = projectionX.projectX(xc, yc, width, height);
-				float pyc = projectionY.projectY(xc, yc, width, height);
-				int argb = imageSampler.sampleRGB(pxc, pyc);
-				targetImage.setRGB(xi, yi, argb);
+		final ImageRaster targetRaster = ImageRaster.createImageRaster(targetImage);
+		final HorizontalCoordinateProjection projectionX = getHorizontalProjection();
+		final VerticalCoordinateProjection projectionY = getVerticalProjection();
+		final ImageSampler imageSampler = createInterpolatingImageSampler(sourceImage);
+		final ImageRaster sourceRaster = ImageRaster.createImageRaster(sourceImage);
+		scheduler.process(width, height, new ImageTileProcessor() {
+
+			@Override
+			public void processTile(ImageTile tile) {
+				int n = tile.getWidth();
+				float[] pxcs = new float[n];
+				float[] pycs = new float[n];
+				int[] row = new int[n];
+				int[] sourceRow = dirtyRegion != null ? new int[n] : null;
+				for (int yi = tile.getY(); yi < tile.getEndY(); yi++) {
+					float yc = 0.5f + yi;
+					for (int i = 0; i < n; i++) {
+						float xc = 0.5f + (tile.getX() + i);
+						pxcs[i] = projectionX.projectX(xc, yc, width, height);
+						pycs[i] = projectionY.projectY(xc, yc, width, height);
+					}
+					imageSampler.sampleRGB(pxcs, pycs, 0, n, row, 0);
+					targetRaster.setRow(tile.getX(), yi, n, row, 0);
+					if (sourceRow != null) {
+						sourceRaster.getRow(tile.getX(), yi, n, sourceRow, 0);
+						dirtyRegion.addChanges(tile.getX(), yi, sourceRow, 0, row, 0, n);
+					}
+				}
 			}
-		}
+		});
 		return targetImage;
 	}
 
+	private ImageSampler createInterpolatingImageSampler(BufferedImage sourceImage) {
+		if (Interpolation.BICUBIC.equals(getInterpolation())) {
+			return ImageSampler.createBicubicImageSampler(sourceImage);
+		} else if (Interpolation.LANCZOS.equals(getInterpolation())) {
+			return ImageSampler.createLanczosImageSampler(sourceImage);
+		} else {
+			return ImageSampler.createBilinearImageSampler(sourceImage);
+		}
+	}
+
 	public HorizontalCoordinateProjection getHorizontalProjection() {
 		return horizontalProjection;
 	}
@@ -113,6 +238,36 @@ public class NonLinearImageDeformation {
 		this.verticalProjection = projection;
 	}
 
+	public Interpolation getInterpolation() {
+		return interpolation;
+	}
+
+	/**
+	 * Sets how the source image is interpolated between pixels
+	 * 
+	 * <p>
+	 * The higher-order interpolations keep a deformation sharp where it enlarges the source image, without first
+	 * scaling up the source image. Bidirectional deformations always interpolate in both directions; the others
+	 * interpolate along the deformed direction when the interpolation is linear.
+	 * </p>
+	 * 
+	 * @param interpolation
+	 *            The interpolation, <code>LINEAR</code> by default
+	 */
+	public void setInterpolation(Interpolation interpolation) {
+		this.interpolation = interpolation;
+	}
+
+	public static enum Interpolation {
+
+		LINEAR,
+
+		BICUBIC,
+
+		LANCZOS;
+
+	}
+
 	public static interface HorizontalCoordinateProjection {
 
 		float projectX(float x, float y, int width, int height);
@@ -0,0 +1,30 @@
+package org.maia.graphics2d.image.ops;
+
+/**
+ * Operation that transforms each pixel independently of its neighbours
+ * 
+ * @see ImagePipeline
+ */
+public interface PixelOperation {
+
+	/**
+	 * Applies this operation to a horizontal run of pixels, in place
+	 * 
+	 * <p>
+	 * This method may be invoked concurrently for different runs of pixels
+	 * </p>
+	 * 
+	 * @param argbs
+	 *            The pixels, packed as integers in the ARGB color model
+	 * @param offset
+	 *            The index in <code>argbs</code> of the first pixel
+	 * @param length
+	 *            The number of pixels
+	 * @param x
+	 *            The x coordinate of the first pixel in the image
+	 * @param y
+	 *            The y coordinate of the pixels in the image
+	 */
+	void apply(int[] argbs, int offset, int length, int x, int y);
+
+}
\ No newline at end of file
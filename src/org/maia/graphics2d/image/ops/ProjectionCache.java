@@ -0,0 +1,231 @@
+package org.maia.graphics2d.image.ops;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of the data that a <code>QuadrilateralImageProjection</code> computes for a target area, such as the mapping
+ * to the source image and the edge smoothing mask
+ * 
+ * <p>
+ * The cache evicts the least recently used entries once it holds more than the maximum number of entries, or more
+ * than the maximum number of bytes of heap memory. Entries that are larger than the maximum number of bytes on their
+ * own are not cached. Data that is memory-mapped from a <code>ProjectionStore</code> takes no heap memory. A cache
+ * can be shared by several projections, which is useful when they project onto the same target areas, and is
+ * thread-safe.
+ * </p>
+ * 
+ * <p>
+ * Optionally, the number of entries of each kind is bounded as well, where edge smoothing masks and projection data
+ * are different kinds. A cache that holds at most one entry of each kind remembers only the last edge smoothing mask
+ * and the last projection data, which is the default cache of a projection.
+ * </p>
+ * 
+ * @see QuadrilateralImageProjection#setCache(ProjectionCache)
+ */
+public class ProjectionCache {
+
+	private int maximumEntries;
+
+	private long maximumBytes;
+
+	private int maximumEntriesPerKind;
+
+	private long sizeInBytes;
+
+	private long hitCount;
+
+	private long missCount;
+
+	private long evictionCount;
+
+	private Map<Object, Entry> entries;
+
+	public ProjectionCache(int maximumEntries) {
+		this(maximumEntries, Long.MAX_VALUE);
+	}
+
+	public ProjectionCache(int maximumEntries, long maximumBytes) {
+		this(maximumEntries, maximumBytes, maximumEntries);
+	}
+
+	/**
+	 * Creates a cache
+	 * 
+	 * @param maximumEntries
+	 *            The maximum number of entries
+	 * @param maximumBytes
+	 *            The maximum number of bytes of heap memory taken by the entries
+	 * @param maximumEntriesPerKind
+	 *            The maximum number of entries of each kind, such as edge smoothing masks or projection data
+	 */
+	public ProjectionCache(int maximumEntries, long maximumBytes, int maximumEntriesPerKind) {
+		if (maximumEntries <= 0)
+			throw new IllegalArgumentException("The maximumEntries must be strictly positive (" + maximumEntries + ")");
+		if (maximumBytes <= 0L)
+			throw new IllegalArgumentException("The maximumBytes must be strictly positive (" + maximumBytes + ")");
+		if (maximumEntriesPerKind <= 0)
+			throw new IllegalArgumentException(
+					"The maximumEntriesPerKind must be strictly positive (" + maximumEntriesPerKind + ")");
+		this.maximumEntries = maximumEntries;
+		this.maximumBytes = maximumBytes;
+		this.maximumEntriesPerKind = maximumEntriesPerKind;
+		this.entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true); // in access order
+	}
+
+	synchronized Object fetch(Object key) {
+		Entry entry = entries.get(key);
+		if (entry != null) {
+			hitCount++;
+			return entry.getValue();
+		} else {
+			missCount++;
+			return null;
+		}
+	}
+
+	synchronized void store(Object key, Object value, long valueSizeInBytes) {
+		remove(key);
+		if (valueSizeInBytes > getMaximumBytes())
+			return;
+		if (getMaximumEntriesPerKind() < getMaximumEntries()) {
+			evictEntriesOfKind(key.getClass(), getMaximumEntriesPerKind() - 1);
+		}
+		entries.put(key, new Entry(value, valueSizeInBytes));
+		sizeInBytes += valueSizeInBytes;
+		Iterator<Entry> it = entries.values().iterator();
+		while (entries.size() > getMaximumEntries() || sizeInBytes > getMaximumBytes()) {
+			Entry eldest = it.next();
+			it.remove();
+			sizeInBytes -= eldest.getSizeInBytes();
+			evictionCount++;
+		}
+	}
+
+	/**
+	 * Evicts the least recently used entries of a kind, until at most a number of them remain
+	 */
+	private void evictEntriesOfKind(Class<?> kind, int remaining) {
+		int count = 0;
+		for (Object key : entries.keySet()) {
+			if (key.getClass().equals(kind)) {
+				count++;
+			}
+		}
+		Iterator<Map.Entry<Object, Entry>> it = entries.entrySet().iterator();
+		while (count > remaining && it.hasNext()) {
+			Map.Entry<Object, Entry> eldest = it.next();
+			if (eldest.getKey().getClass().equals(kind)) {
+				it.remove();
+				sizeInBytes -= eldest.getValue().getSizeInBytes();
+				evictionCount++;
+				count--;
+			}
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the entries of this cache, without affecting their order of use
+	 * 
+	 * @return The values by key, from least to most recently used
+	 */
+	synchronized Map<Object, Object> getEntries() {
+		Map<Object, Object> snapshot = new LinkedHashMap<Object, Object>(entries.size() * 2);
+		for (Map.Entry<Object, Entry> entry : entries.entrySet()) {
+			snapshot.put(entry.getKey(), entry.getValue().getValue());
+		}
+		return snapshot;
+	}
+
+	private void remove(Object key) {
+		Entry entry = entries.remove(key);
+		if (entry != null) {
+			sizeInBytes -= entry.getSizeInBytes();
+		}
+	}
+
+	/**
+	 * Removes all entries from this cache. The statistics are kept
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		sizeInBytes = 0L;
+	}
+
+	public synchronized void resetStatistics() {
+		hitCount = 0L;
+		missCount = 0L;
+		evictionCount = 0L;
+	}
+
+	public synchronized int getSize() {
+		return entries.size();
+	}
+
+	public synchronized long getSizeInBytes() {
+		return sizeInBytes;
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Returns the fraction of lookups that were found in this cache
+	 * 
+	 * @return The hit ratio, in the range [0, 1], or 0 when there were no lookups yet
+	 */
+	public synchronized double getHitRatio() {
+		long lookups = hitCount + missCount;
+		return lookups == 0L ? 0.0 : hitCount / (double) lookups;
+	}
+
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	public int getMaximumEntries() {
+		return maximumEntries;
+	}
+
+	public long getMaximumBytes() {
+		return maximumBytes;
+	}
+
+	public int getMaximumEntriesPerKind() {
+		return maximumEntriesPerKind;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "ProjectionCache [size=" + getSize() + ", sizeInBytes=" + getSizeInBytes() + ", hits=" + getHitCount()
+				+ ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+	}
+
+	private static class Entry {
+
+		private Object value;
+
+		private long sizeInBytes;
+
+		public Entry(Object value, long sizeInBytes) {
+			this.value = value;
+			this.sizeInBytes = sizeInBytes;
+		}
+
+		public Object getValue() {
+			return value;
+		}
+
+		public long getSizeInBytes() {
+			return sizeInBytes;
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,237 @@
+package org.maia.graphics2d.image.ops;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * File that persists the contents of a <code>ProjectionCache</code>, so that projections can start warm
+ * 
+ * <p>
+ * A store holds the edge smoothing masks and projection data of a cache, each with its key: the target area, the
+ * pseudo perspective and mapping mode, or the size of the target image. A file starts with a header of 2 integers,
+ * the magic number and the format version, followed by the entries and a terminating zero byte. All numbers are in
+ * little-endian byte order, and the bulk data of an entry starts at a multiple of 8 bytes.
+ * </p>
+ * 
+ * <p>
+ * Loading memory-maps the file. Projection data is not copied onto the heap, but read straight from the mapped file
+ * when a projection reuses it, so that loading a large store is fast and takes little heap memory. Mapped data does
+ * not count towards the maximum number of bytes of a cache, which bounds heap memory only.
+ * </p>
+ * 
+ * <p>
+ * The file must not be replaced while data loaded from it is in use, as the mapping lasts until that data is garbage
+ * collected. On some platforms, such as Windows, a mapped file cannot be replaced at all, and saving to it fails.
+ * Save to a store with another file instead.
+ * </p>
+ * 
+ * @see QuadrilateralImageProjection#preload(ProjectionStore)
+ */
+public class ProjectionStore {
+
+	private static final int MAGIC_NUMBER = 0x5453504d; // "MPST" in little-endian
+
+	private static final int VERSION = 1;
+
+	private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+	private File file;
+
+	public ProjectionStore(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Writes the entries of a cache to this store, replacing its previous contents
+	 * 
+	 * <p>
+	 * The entries are written to a temporary file that then replaces the file of this store, so that the store is
+	 * never left partially written.
+	 * </p>
+	 * 
+	 * @param cache
+	 *            The cache to write. Its entries are written from least to most recently used
+	 * @return The number of entries written
+	 * @throws IOException
+	 *             When the file could not be written or replaced, such as when it is still mapped by a previous load on
+	 *             a platform that does not allow replacing mapped files
+	 */
+	public synchronized int save(ProjectionCache cache) throws IOException {
+		Map<Object, Object> entries = cache.getEntries();
+		File directory = getFile().getAbsoluteFile().getParentFile();
+		// written aside and moved in place, so that the store is never partially written
+		File tempFile = File.createTempFile("projection-store-", ".tmp", directory);
+		try {
+			int count = 0;
+			FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE);
+			try {
+				Writer writer = new Writer(channel);
+				writer.putInt(MAGIC_NUMBER);
+				writer.putInt(VERSION);
+				for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+					if (QuadrilateralImageProjection.writeCacheEntry(entry.getKey(), entry.getValue(), writer)) {
+						count++;
+					}
+				}
+				writer.putByte(0);
+				writer.flush();
+			} finally {
+				channel.close();
+			}
+			Files.move(tempFile.toPath(), getFile().toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			return count;
+		} finally {
+			tempFile.delete(); // when not moved in place
+		}
+	}
+
+	/**
+	 * Loads the entries of this store into a cache
+	 * 
+	 * <p>
+	 * The cache should be large enough to hold the entries, or the least recently used entries at the time of saving
+	 * will be evicted first.
+	 * </p>
+	 * 
+	 * @param cache
+	 *            The cache to load into
+	 * @return The number of entries loaded
+	 * @throws IOException
+	 *             When the file could not be read, or is not a valid projection store
+	 */
+	public synchronized int load(ProjectionCache cache) throws IOException {
+		FileChannel channel = FileChannel.open(getFile().toPath(), StandardOpenOption.READ);
+		try {
+			long fileSize = channel.size();
+			if (fileSize < 9L)
+				throw new IOException("Not a projection store: " + getFile().getPath());
+			if (fileSize > Integer.MAX_VALUE)
+				throw new IOException("Projection store too large to map: " + getFile().getPath());
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+			mapped.load(); // avoids page faults in the first frames that reuse the data
+			ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+			if (buffer.getInt() != MAGIC_NUMBER)
+				throw new IOException("Not a projection store: " + getFile().getPath());
+			int version = buffer.getInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported projection store version " + version + ": " + getFile().getPath());
+			int count = 0;
+			try {
+				while (QuadrilateralImageProjection.readCacheEntry(buffer, cache)) {
+					count++;
+				}
+			} catch (RuntimeException e) {
+				throw new IOException("Corrupt projection store: " + getFile().getPath(), e);
+			}
+			return count;
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Skips the padding in front of the bulk data of an entry
+	 * 
+	 * @param buffer
+	 *            The mapped store, positioned after the header of the bulk data
+	 */
+	static void skipPadding(ByteBuffer buffer) {
+		buffer.position((buffer.position() + 7) & ~7);
+	}
+
+	/**
+	 * Returns a slice of a mapped store, and moves past it
+	 * 
+	 * @param buffer
+	 *            The mapped store
+	 * @param length
+	 *            The length of the slice, in bytes
+	 * @return The slice, in little-endian byte order
+	 */
+	static ByteBuffer slice(ByteBuffer buffer, int length) {
+		ByteBuffer slice = buffer.slice();
+		slice.limit(length);
+		buffer.position(buffer.position() + length);
+		return slice.order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Sequential writer of a store, in little-endian byte order
+	 */
+	static class Writer {
+
+		private FileChannel channel;
+
+		private ByteBuffer buffer;
+
+		private long position;
+
+		private Writer(FileChannel channel) {
+			this.channel = channel;
+			this.buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		public void putByte(int value) throws IOException {
+			ensureRemaining(1);
+			buffer.put((byte) value);
+		}
+
+		public void putChar(char value) throws IOException {
+			ensureRemaining(2);
+			buffer.putChar(value);
+		}
+
+		public void putInt(int value) throws IOException {
+			ensureRemaining(4);
+			buffer.putInt(value);
+		}
+
+		public void putLong(long value) throws IOException {
+			ensureRemaining(8);
+			buffer.putLong(value);
+		}
+
+		public void putFloat(float value) throws IOException {
+			ensureRemaining(4);
+			buffer.putFloat(value);
+		}
+
+		/**
+		 * Writes zero bytes up to the next multiple of 8 bytes, where the bulk data of an entry starts
+		 */
+		public void putPadding() throws IOException {
+			while (((position + buffer.position()) & 7L) != 0L) {
+				putByte(0);
+			}
+		}
+
+		private void ensureRemaining(int bytes) throws IOException {
+			if (buffer.remaining() < bytes) {
+				flush();
+			}
+		}
+
+		public void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				position += channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -10,18 +10,54 @@ import java.awt.RenderingHints;
 import java.awt.Shape;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
-
+import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.maia.graphics2d.image.AlphaCompositingKernel;
+import org.maia.graphics2d.image.DirtyRegion;
+import org.maia.graphics2d.image.ImageRaster;
 import org.maia.graphics2d.image.ImageSampler;
 import org.maia.graphics2d.image.ImageUtils;
-import org.maia.util.ColorUtils;
+import org.maia.graphics2d.image.parallel.ImageTile;
+import org.maia.graphics2d.image.parallel.ImageTileProcessor;
+import org.maia.graphics2d.image.parallel.ImageTileScheduler;
+import org.maia.graphics2d.transform.TransformMatrix2D;
+import org.maia.graphics2d.transform.Transformation2D;
+import org.maia.graphics2d.transform.Transformation2D.MatrixInversionException;
 
 public class QuadrilateralImageProjection {
 
+	private static final int STORE_END = 0;
+
+	private static final int STORE_EDGE_SMOOTHING_MASK = 1;
+
+	private static final int STORE_PROJECTION_STATE = 2;
+
 	private boolean smoothEdges = true;
 
 	private boolean subSampling = true;
 
+	private boolean fixedPointSubSampling;
+
+	private boolean mipmapping;
+
+	private boolean incrementalMapping = true;
+
+	private boolean projectiveMapping;
+
 	private boolean flipHorizontally;
 
 	private boolean flipVertically;
@@ -30,15 +66,16 @@ public class QuadrilateralImageProjection {
 
 	private boolean rememberLastProjectionData;
 
-	private EdgeSmoothingMaskCacheKey lastEdgeSmoothingMaskCacheKey;
+	private boolean compactProjectionData;
 
-	private EdgeSmoothingMask lastEdgeSmoothingMask;
-
-	private ProjectionStateCacheKey lastProjectionStateCacheKey;
-
-	private ProjectionState lastProjectionState;
+	private ProjectionCache cache;
 
 	public QuadrilateralImageProjection() {
+		this(new ProjectionCache(2, Long.MAX_VALUE, 1)); // the last edge smoothing mask and the last projection data
+	}
+
+	public QuadrilateralImageProjection(ProjectionCache cache) {
+		setCache(cache);
 	}
 
 	public BufferedImage project(BufferedImage sourceImage, Quadrilateral targetArea) {
@@ -56,8 +93,13 @@ public class QuadrilateralImageProjection {
 
 	public BufferedImage project(BufferedImage sourceImage, Dimension targetImageSize, Quadrilateral targetArea,
 			PseudoPerspective pseudoPerspective) {
+		return project(sourceImage, targetImageSize, targetArea, pseudoPerspective, ImageTileScheduler.SERIAL);
+	}
+
+	public BufferedImage project(BufferedImage sourceImage, Dimension targetImageSize, Quadrilateral targetArea,
+			PseudoPerspective pseudoPerspective, ImageTileScheduler scheduler) {
 		BufferedImage targetImage = ImageUtils.createImage(targetImageSize);
-		projectOntoTargetImage(sourceImage, targetImage, targetArea, pseudoPerspective);
+		projectOntoTargetImage(sourceImage, targetImage, targetArea, pseudoPerspective, scheduler);
 		return targetImage;
 	}
 
@@ -65,97 +107,285 @@ public class QuadrilateralImageProjection {
 		projectOntoTargetImage(sourceImage, targetImage, targetArea, null);
 	}
 
-	public synchronized void projectOntoTargetImage(BufferedImage sourceImage, BufferedImage targetImage,
-			Quadrilateral targetArea, PseudoPerspective pseudoPerspective) {
+	public void projectOntoTargetImage(BufferedImage sourceImage, BufferedImage targetImage, Quadrilateral targetArea,
+			PseudoPerspective pseudoPerspective) {
+		projectOntoTargetImage(sourceImage, targetImage, targetArea, pseudoPerspective, ImageTileScheduler.SERIAL);
+	}
+
+	/**
+	 * Projects a source image onto a quadrilateral area of a target image, processing tiles of the area as scheduled
+	 * 
+	 * <p>
+	 * Each tile computes its own share of the projection and writes only its own pixels of the target image, so that
+	 * tiles can be processed in parallel. A row band scheduler works best, as in
+	 * <code>ImageTileScheduler.createRowBandScheduler</code>, and gives the same output as a serial projection.
+	 * Tiles narrower than the target area may differ in the last bit of a color channel, as the compositing kernel
+	 * can round differently depending on where a row segment starts.
+	 * </p>
+	 * 
+	 * <p>
+	 * This method can be invoked concurrently on the same projection instance, provided the target images differ.
+	 * Only the bookkeeping of the remembered edge smoothing and projection data is synchronized.
+	 * </p>
+	 * 
+	 * @param sourceImage
+	 *            The image to project
+	 * @param targetImage
+	 *            The image to project onto
+	 * @param targetArea
+	 *            The area of the target image to project onto
+	 * @param pseudoPerspective
+	 *            The pseudo perspective of the projection, or <code>null</code> for none
+	 * @param scheduler
+	 *            The scheduler for processing tiles of the target area
+	 * @see #projectOntoTargetImage(BufferedImage, BufferedImage, Quadrilateral, PseudoPerspective,
+	 *      ImageTileScheduler, DirtyRegion)
+	 */
+	public void projectOntoTargetImage(BufferedImage sourceImage, BufferedImage targetImage, Quadrilateral targetArea,
+			PseudoPerspective pseudoPerspective, ImageTileScheduler scheduler) {
+		projectOntoTargetImage(sourceImage, targetImage, targetArea, pseudoPerspective, scheduler, null);
+	}
+
+	/**
+	 * Projects a source image onto a quadrilateral area of a target image, and reports the pixels that changed
+	 * 
+	 * <p>
+	 * The pixels that changed are those onto which the source image was projected with a non-zero alpha. Other
+	 * pixels of the target image are left untouched.
+	 * </p>
+	 * 
+	 * @param sourceImage
+	 *            The image to project
+	 * @param targetImage
+	 *            The image to project onto
+	 * @param targetArea
+	 *            The area of the target image to project onto
+	 * @param pseudoPerspective
+	 *            The pseudo perspective of the projection, or <code>null</code> for none
+	 * @param scheduler
+	 *            The scheduler for processing tiles of the target area
+	 * @param dirtyRegion
+	 *            The region to which the changed pixels are added, or <code>null</code> when not needed
+	 * @see #projectOntoTargetImage(BufferedImage, BufferedImage, Quadrilateral, PseudoPerspective,
+	 *      ImageTileScheduler)
+	 */
+	public void projectOntoTargetImage(BufferedImage sourceImage, BufferedImage targetImage, Quadrilateral targetArea,
+			PseudoPerspective pseudoPerspective, ImageTileScheduler scheduler, DirtyRegion dirtyRegion) {
 		Dimension targetImageSize = ImageUtils.getSize(targetImage);
 		EdgeSmoothingMask edgeSmoothingMask = null;
 		EdgeSmoothingMaskCacheKey edgeSmoothingMaskCacheKey = null;
 		if (isSmoothEdges()) {
 			edgeSmoothingMaskCacheKey = new EdgeSmoothingMaskCacheKey(targetImageSize, targetArea);
-			if (edgeSmoothingMaskCacheKey.equals(getLastEdgeSmoothingMaskCacheKey())) {
-				edgeSmoothingMask = getLastEdgeSmoothingMask();
-			} else {
+			edgeSmoothingMask = getRememberedEdgeSmoothingMask(edgeSmoothingMaskCacheKey);
+			if (edgeSmoothingMask == null) {
 				edgeSmoothingMask = new EdgeSmoothingMask(targetImageSize, targetArea);
+				rememberEdgeSmoothing(edgeSmoothingMask, edgeSmoothingMaskCacheKey);
 			}
 		}
-		ImageSampler imageSampler = isSubSampling() ? ImageSampler.createBilinearImageSampler(sourceImage) : null;
-		ComputeState computeState = null;
 		boolean reuseProjectionState = false;
-		ProjectionState projectionState = null;
-		ProjectionStateCacheKey projectionStateCacheKey = new ProjectionStateCacheKey(targetArea, pseudoPerspective);
-		if (projectionStateCacheKey.equals(getLastProjectionStateCacheKey())) {
-			projectionState = getLastProjectionState();
+		ProjectionStateCacheKey projectionStateCacheKey = new ProjectionStateCacheKey(targetArea, pseudoPerspective,
+				isProjectiveMapping());
+		ProjectionState projectionState = getRememberedProjectionState(projectionStateCacheKey);
+		if (projectionState != null) {
 			reuseProjectionState = true;
-		} else {
-			computeState = new ComputeState(targetArea, pseudoPerspective);
-			if (isRememberLastProjectionData()) {
-				projectionState = new ProjectionState(targetArea);
-			}
+		} else if (isRememberLastProjectionData()) {
+			projectionState = createProjectionState(targetArea);
 		}
-		float sw = ImageUtils.getWidth(sourceImage) - 1f;
-		float sh = ImageUtils.getHeight(sourceImage) - 1f;
 		Rectangle rect = targetArea.getBoundingBox();
-		for (int yi = 0; yi < rect.height; yi++) {
-			int ty = rect.y + yi;
-			for (int xi = 0; xi < rect.width; xi++) {
-				int tx = rect.x + xi;
-				float srx = Float.NaN;
-				float sry = Float.NaN;
-				if (reuseProjectionState) {
-					srx = projectionState.getRelativeSourceXCoordinate(xi, yi);
-					sry = projectionState.getRelativeSourceYCoordinate(xi, yi);
-				} else {
-					Point2D.Float srloc = computeState.projectTo(tx, ty);
-					if (srloc != null) {
-						srx = srloc.x;
-						sry = srloc.y;
-					}
-					if (projectionState != null) {
-						projectionState.setRelativeSourceXCoordinate(xi, yi, srx);
-						projectionState.setRelativeSourceYCoordinate(xi, yi, sry);
-					}
+		Rectangle area = rect;
+		if (reuseProjectionState || projectionState == null) {
+			// no projection state to complete, so only the part inside the target image matters
+			area = rect.intersection(new Rectangle(targetImageSize));
+		}
+		ProjectionTileProcessor processor = new ProjectionTileProcessor(sourceImage, targetImage, targetArea,
+				pseudoPerspective, edgeSmoothingMask, projectionState, reuseProjectionState, dirtyRegion);
+		scheduler.process(area, processor);
+		if (!reuseProjectionState) {
+			rememberProjection(projectionState, projectionStateCacheKey);
+		}
+	}
+
+	/**
+	 * Projects a batch of source images onto quadrilateral areas of a shared target image
+	 * 
+	 * <p>
+	 * The jobs are composited back to front, in order of decreasing depth, and in the order of the list for jobs of
+	 * equal depth. Each job is projected as a whole by one of the worker threads of the scheduler. A job waits for
+	 * the jobs before it whose target areas overlap its own, so that the outcome is the same as projecting the jobs
+	 * one after the other, whereas jobs onto disjoint parts of the target image are projected concurrently.
+	 * </p>
+	 * 
+	 * @param targetImage
+	 *            The image to project onto
+	 * @param jobs
+	 *            The projections to perform
+	 * @param scheduler
+	 *            The scheduler whose worker threads perform the jobs, like <code>ImageTileScheduler.getDefault()</code>
+	 * @throws RuntimeException
+	 *             When one of the projections failed
+	 * @see ImageTileScheduler#getExecutor()
+	 */
+	public void projectOntoTargetImage(BufferedImage targetImage, List<ProjectionJob> jobs,
+			ImageTileScheduler scheduler) {
+		projectOntoTargetImage(targetImage, jobs, scheduler, null);
+	}
+
+	/**
+	 * Projects a batch of source images onto quadrilateral areas of a shared target image, and reports the pixels
+	 * that changed
+	 * 
+	 * @param targetImage
+	 *            The image to project onto
+	 * @param jobs
+	 *            The projections to perform
+	 * @param scheduler
+	 *            The scheduler whose worker threads perform the jobs
+	 * @param dirtyRegion
+	 *            The region to which the changed pixels of all jobs are added, or <code>null</code> when not needed
+	 * @throws RuntimeException
+	 *             When one of the projections failed
+	 * @see #projectOntoTargetImage(BufferedImage, List, ImageTileScheduler)
+	 */
+	public void projectOntoTargetImage(BufferedImage targetImage, List<ProjectionJob> jobs,
+			ImageTileScheduler scheduler, final DirtyRegion dirtyRegion) {
+		List<ProjectionJob> orderedJobs = new Vector<ProjectionJob>(jobs);
+		Collections.sort(orderedJobs, new Comparator<ProjectionJob>() {
+
+			@Override
+			public int compare(ProjectionJob job1, ProjectionJob job2) {
+				return Float.compare(job2.getDepth(), job1.getDepth()); // stable, keeps the list order on equal depth
+			}
+		});
+		Rectangle targetBounds = new Rectangle(ImageUtils.getSize(targetImage));
+		Executor executor = scheduler.getExecutor();
+		int n = orderedJobs.size();
+		Rectangle[] jobBounds = new Rectangle[n];
+		CompletableFuture<?>[] jobFutures = new CompletableFuture<?>[n];
+		for (int i = 0; i < n; i++) {
+			final ProjectionJob job = orderedJobs.get(i);
+			jobBounds[i] = job.getTargetArea().getBoundingBox().intersection(targetBounds);
+			List<CompletableFuture<?>> dependencies = new Vector<CompletableFuture<?>>();
+			for (int j = 0; j < i; j++) {
+				if (jobBounds[j].intersects(jobBounds[i])) {
+					dependencies.add(jobFutures[j]);
 				}
-				if (!Float.isNaN(srx)) {
-					if (isFlipHorizontally())
-						srx = 1f - srx;
-					if (isFlipVertically())
-						sry = 1f - sry;
-					float sx = 0.5f + srx * sw;
-					float sy = 0.5f + sry * sh;
-					int argb = 0;
-					if (imageSampler == null) {
-						argb = sourceImage.getRGB((int) Math.floor(sx), (int) Math.floor(sy));
-					} else {
-						argb = imageSampler.sampleRGB(sx, sy);
-					}
-					if (edgeSmoothingMask != null) {
-						int alpha = edgeSmoothingMask.getMaskValue(tx, ty);
-						int sourceAlpha = (argb & 0xff000000) >>> 24;
-						if (sourceAlpha < 255) {
-							alpha = (int) Math.round((alpha / 255f) * sourceAlpha);
+			}
+			final BufferedImage target = targetImage;
+			jobFutures[i] = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[dependencies.size()]))
+					.thenRunAsync(new Runnable() {
+
+						@Override
+						public void run() {
+							projectOntoTargetImage(job.getSourceImage(), target, job.getTargetArea(),
+									job.getPseudoPerspective(), ImageTileScheduler.SERIAL, dirtyRegion);
 						}
-						argb = (alpha << 24) | (argb & 0x00ffffff);
-					}
-					targetImage.setRGB(tx, ty, ColorUtils.combineByTransparency(argb, targetImage.getRGB(tx, ty)));
-				}
+					}, executor);
+		}
+		try {
+			CompletableFuture.allOf(jobFutures).join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else {
+				throw e;
 			}
 		}
-		rememberEdgeSmoothing(edgeSmoothingMask, edgeSmoothingMaskCacheKey);
-		rememberProjection(projectionState, projectionStateCacheKey);
+	}
+
+	private ComputeState createComputeState(Quadrilateral targetArea, PseudoPerspective pseudoPerspective) {
+		if (isProjectiveMapping()) {
+			return new ProjectiveComputeState(targetArea);
+		} else {
+			return new BilinearComputeState(targetArea, pseudoPerspective);
+		}
+	}
+
+	private ProjectionState createProjectionState(Quadrilateral targetArea) {
+		if (isCompactProjectionData()) {
+			return new CompactProjectionState(targetArea);
+		} else {
+			return new FloatProjectionState(targetArea);
+		}
+	}
+
+	private ImageSampler createImageSampler(BufferedImage sourceImage) {
+		if (isMipmapping()) {
+			return ImageSampler.createTrilinearImageSampler(sourceImage);
+		} else if (isFixedPointSubSampling()) {
+			return ImageSampler.createFixedPointBilinearImageSampler(sourceImage, true);
+		} else {
+			return ImageSampler.createBilinearImageSampler(sourceImage);
+		}
+	}
+
+	private EdgeSmoothingMask getRememberedEdgeSmoothingMask(EdgeSmoothingMaskCacheKey cacheKey) {
+		if (!isRememberLastEdgeSmoothing())
+			return null;
+		return (EdgeSmoothingMask) getCache().fetch(cacheKey);
+	}
+
+	private ProjectionState getRememberedProjectionState(ProjectionStateCacheKey cacheKey) {
+		if (!isRememberLastProjectionData())
+			return null;
+		return (ProjectionState) getCache().fetch(cacheKey);
 	}
 
 	private void rememberEdgeSmoothing(EdgeSmoothingMask edgeSmoothingMask,
 			EdgeSmoothingMaskCacheKey edgeSmoothingMaskCacheKey) {
 		if (edgeSmoothingMask != null && isRememberLastEdgeSmoothing()) {
-			setLastEdgeSmoothingMask(edgeSmoothingMask);
-			setLastEdgeSmoothingMaskCacheKey(edgeSmoothingMaskCacheKey);
+			getCache().store(edgeSmoothingMaskCacheKey, edgeSmoothingMask, edgeSmoothingMask.getSizeInBytes());
 		}
 	}
 
 	private void rememberProjection(ProjectionState projectionState, ProjectionStateCacheKey projectionStateCacheKey) {
 		if (projectionState != null && isRememberLastProjectionData()) {
-			setLastProjectionState(projectionState);
-			setLastProjectionStateCacheKey(projectionStateCacheKey);
+			getCache().store(projectionStateCacheKey, projectionState, projectionState.getSizeInBytes());
+		}
+	}
+
+	/**
+	 * Writes an entry of a cache to a projection store
+	 * 
+	 * @return <code>true</code> when the entry was written, <code>false</code> when the entry does not hold an edge
+	 *         smoothing mask or projection data
+	 */
+	static boolean writeCacheEntry(Object key, Object value, ProjectionStore.Writer writer) throws IOException {
+		if (key instanceof EdgeSmoothingMaskCacheKey) {
+			writer.putByte(STORE_EDGE_SMOOTHING_MASK);
+			((EdgeSmoothingMaskCacheKey) key).writeTo(writer);
+			((EdgeSmoothingMask) value).writeTo(writer);
+			return true;
+		} else if (key instanceof ProjectionStateCacheKey) {
+			writer.putByte(STORE_PROJECTION_STATE);
+			((ProjectionStateCacheKey) key).writeTo(writer);
+			((ProjectionState) value).writeTo(writer);
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * Reads the next entry of a mapped projection store into a cache
+	 * 
+	 * @return <code>true</code> when an entry was read, <code>false</code> at the end of the store
+	 */
+	static boolean readCacheEntry(ByteBuffer buffer, ProjectionCache cache) throws IOException {
+		int type = buffer.get();
+		if (type == STORE_EDGE_SMOOTHING_MASK) {
+			EdgeSmoothingMaskCacheKey key = EdgeSmoothingMaskCacheKey.readFrom(buffer);
+			EdgeSmoothingMask mask = EdgeSmoothingMask.readFrom(buffer);
+			cache.store(key, mask, mask.getSizeInBytes());
+			return true;
+		} else if (type == STORE_PROJECTION_STATE) {
+			ProjectionStateCacheKey key = ProjectionStateCacheKey.readFrom(buffer);
+			ProjectionState state = ProjectionState.readFrom(buffer);
+			cache.store(key, state, state.getSizeInBytes());
+			return true;
+		} else if (type == STORE_END) {
+			return false;
+		} else {
+			throw new IOException("Unknown projection store entry type " + type);
 		}
 	}
 
@@ -175,6 +405,80 @@ public class QuadrilateralImageProjection {
 		this.subSampling = subSampling;
 	}
 
+	public boolean isFixedPointSubSampling() {
+		return fixedPointSubSampling;
+	}
+
+	/**
+	 * Chooses between floating-point and fixed-point arithmetic for sub-sampling the source image
+	 * 
+	 * @param fixedPoint
+	 *            When <code>true</code>, the source image is sub-sampled by a faster fixed-point sampler in
+	 *            premultiplied-alpha mode, at a small loss of precision. This only applies when sub-sampling is on.
+	 * @see ImageSampler#createFixedPointBilinearImageSampler(BufferedImage, boolean)
+	 * @see #setSubSampling(boolean)
+	 */
+	public void setFixedPointSubSampling(boolean fixedPoint) {
+		this.fixedPointSubSampling = fixedPoint;
+	}
+
+	public boolean isMipmapping() {
+		return mipmapping;
+	}
+
+	/**
+	 * Turns mipmapping on or off. With mipmapping, the source image is sampled from a reduced version whose resolution
+	 * matches the footprint of each target pixel in the source image. This avoids aliasing when a large source image
+	 * is projected onto a small area. It only applies when sub-sampling is on, and takes precedence over fixed-point
+	 * sub-sampling.
+	 * 
+	 * @param mipmapping
+	 *            <code>true</code> to sample a mipmap pyramid of the source image
+	 * @see ImageSampler#createTrilinearImageSampler(BufferedImage)
+	 */
+	public void setMipmapping(boolean mipmapping) {
+		this.mipmapping = mipmapping;
+	}
+
+	public boolean isIncrementalMapping() {
+		return incrementalMapping;
+	}
+
+	/**
+	 * Chooses how target pixels are mapped to the source image
+	 * 
+	 * @param incremental
+	 *            When <code>true</code>, which is the default, the mapping is updated incrementally along each row of
+	 *            target pixels, which is faster. When <code>false</code>, the mapping is solved from scratch for
+	 *            every target pixel. Both agree up to rounding.
+	 */
+	public void setIncrementalMapping(boolean incremental) {
+		this.incrementalMapping = incremental;
+	}
+
+	public boolean isProjectiveMapping() {
+		return projectiveMapping;
+	}
+
+	/**
+	 * Chooses between a bilinear and a projective mapping of the source image onto the target area
+	 * 
+	 * <p>
+	 * The bilinear mapping, which is the default, spaces the source image evenly along the sides of the target area.
+	 * A pseudo perspective can be added to it by the exponents of a <code>PseudoPerspective</code>. The projective
+	 * mapping takes the target area for the view in perspective of a rectangle, as given by the homography that maps
+	 * the corners of the source image to the vertices of the target area. It gives a true perspective, which is
+	 * determined by the vertices alone, so that a pseudo perspective has no effect. It is also cheaper, with a
+	 * division but no square root per target pixel.
+	 * </p>
+	 * 
+	 * @param projective
+	 *            <code>true</code> for the projective mapping, <code>false</code> for the bilinear mapping
+	 */
+	public void setProjectiveMapping(boolean projective) {
+		this.projectiveMapping = projective;
+	}
+
 	public boolean isFlipHorizontally() {
 		return flipHorizontally;
 	}
@@ -212,36 +516,73 @@ public class QuadrilateralImageProjection {
 		this.rememberLastProjectionData = remember;
 	}
 
-	private EdgeSmoothingMaskCacheKey getLastEdgeSmoothingMaskCacheKey() {
-		return lastEdgeSmoothingMaskCacheKey;
-	}
-
-	private void setLastEdgeSmoothingMaskCacheKey(EdgeSmoothingMaskCacheKey cacheKey) {
-		this.lastEdgeSmoothingMaskCacheKey = cacheKey;
+	public boolean isCompactProjectionData() {
+		return compactProjectionData;
 	}
 
-	private EdgeSmoothingMask getLastEdgeSmoothingMask() {
-		return lastEdgeSmoothingMask;
+	/**
+	 * Sets whether remembered projection data is stored in a compact form
+	 * 
+	 * <p>
+	 * Compact projection data takes half the memory, so that a cache holds twice as many projections. The source
+	 * coordinates are stored in 16-bit fixed point, which is precise to within 1/65535 of the source image width and
+	 * height. Projections that reuse compact data may therefore sample large source images at slightly different
+	 * locations than the projection that computed the data.
+	 * </p>
+	 * 
+	 * @param compact
+	 *            <code>true</code> to store projection data in 16-bit fixed point, <code>false</code> to store it in
+	 *            full floating point precision
+	 * @see #setRememberLastProjectionData(boolean)
+	 */
+	public void setCompactProjectionData(boolean compact) {
+		this.compactProjectionData = compact;
 	}
 
-	private void setLastEdgeSmoothingMask(EdgeSmoothingMask mask) {
-		this.lastEdgeSmoothingMask = mask;
+	public ProjectionCache getCache() {
+		return cache;
 	}
 
-	private ProjectionStateCacheKey getLastProjectionStateCacheKey() {
-		return lastProjectionStateCacheKey;
+	/**
+	 * Sets the cache for the edge smoothing masks and projection data that are remembered by this projection
+	 * 
+	 * <p>
+	 * By default, every projection has a cache of its own for the last edge smoothing mask and the last projection
+	 * data. A larger cache pays off when a projection alternates between several target areas, and a cache can be
+	 * shared by several projections of the same target areas. Nothing is cached unless this projection is set to
+	 * remember edge smoothing or projection data.
+	 * </p>
+	 * 
+	 * @param cache
+	 *            The cache, which cannot be <code>null</code>
+	 * @see #setRememberLastEdgeSmoothing(boolean)
+	 * @see #setRememberLastProjectionData(boolean)
+	 */
+	public void setCache(ProjectionCache cache) {
+		if (cache == null)
+			throw new IllegalArgumentException("The cache must not be null");
+		this.cache = cache;
 	}
 
-	private void setLastProjectionStateCacheKey(ProjectionStateCacheKey cacheKey) {
-		this.lastProjectionStateCacheKey = cacheKey;
-	}
-
-	private ProjectionState getLastProjectionState() {
-		return lastProjectionState;
-	}
-
-	private void setLastProjectionState(ProjectionState state) {
-		this.lastProjectionState = state;
+	/**
+	 * Loads the edge smoothing masks and projection data of a store into the cache of this projection
+	 * 
+	 * <p>
+	 * Preloading a store, that was saved from the cache of an earlier run, spares the first projections after a
+	 * restart from computing their data. The cache should be large enough for the contents of the store, and this
+	 * projection should be set to remember edge smoothing and projection data for the preloaded data to be used.
+	 * </p>
+	 * 
+	 * @param store
+	 *            The store to preload
+	 * @return The number of edge smoothing masks and projection data loaded
+	 * @throws IOException
+	 *             When the store could not be read
+	 * @see ProjectionStore#save(ProjectionCache)
+	 * @see #setCache(ProjectionCache)
+	 */
+	public int preload(ProjectionStore store) throws IOException {
+		return store.load(getCache());
 	}
 
 	public static class PseudoPerspective {
@@ -336,6 +677,25 @@ public class QuadrilateralImageProjection {
 			return new Rectangle(xmin, ymin, xmax - xmin + 1, ymax - ymin + 1);
 		}
 
+		void writeTo(ProjectionStore.Writer writer) throws IOException {
+			Point[] vertices = new Point[] { getUpperLeftVertex(), getUpperRightVertex(), getBottomRightVertex(),
+					getBottomLeftVertex() };
+			for (int i = 0; i < vertices.length; i++) {
+				writer.putInt(vertices[i].x);
+				writer.putInt(vertices[i].y);
+			}
+		}
+
+		static Quadrilateral readFrom(ByteBuffer buffer) {
+			Point[] vertices = new Point[4];
+			for (int i = 0; i < vertices.length; i++) {
+				int x = buffer.getInt();
+				int y = buffer.getInt();
+				vertices[i] = new Point(x, y);
+			}
+			return new Quadrilateral(vertices[0], vertices[1], vertices[2], vertices[3]);
+		}
+
 		Shape getOutline() {
 			Polygon polygon = new Polygon();
 			polygon.addPoint(getUpperLeftVertex().x + 1, getUpperLeftVertex().y + 1);
@@ -387,7 +747,456 @@ public class QuadrilateralImageProjection {
 
 	}
 
-	private static class ComputeState {
+	/**
+	 * The projection of a source image onto a quadrilateral area of a target image, as part of a batch
+	 * 
+	 * @see QuadrilateralImageProjection#projectOntoTargetImage(BufferedImage, List, ImageTileScheduler)
+	 */
+	public static class ProjectionJob {
+
+		private BufferedImage sourceImage;
+
+		private Quadrilateral targetArea;
+
+		private PseudoPerspective pseudoPerspective;
+
+		private float depth;
+
+		public ProjectionJob(BufferedImage sourceImage, Quadrilateral targetArea) {
+			this(sourceImage, targetArea, null);
+		}
+
+		public ProjectionJob(BufferedImage sourceImage, Quadrilateral targetArea, PseudoPerspective pseudoPerspective) {
+			this(sourceImage, targetArea, pseudoPerspective, 0f);
+		}
+
+		/**
+		 * Creates a projection job
+		 * 
+		 * @param sourceImage
+		 *            The image to project
+		 * @param targetArea
+		 *            The area of the target image to project onto
+		 * @param pseudoPerspective
+		 *            The pseudo perspective of the projection, or <code>null</code> for none
+		 * @param depth
+		 *            The distance to the viewer. Jobs that are further away are composited first
+		 */
+		public ProjectionJob(BufferedImage sourceImage, Quadrilateral targetArea, PseudoPerspective pseudoPerspective,
+				float depth) {
+			this.sourceImage = sourceImage;
+			this.targetArea = targetArea;
+			this.pseudoPerspective = pseudoPerspective;
+			this.depth = depth;
+		}
+
+		public BufferedImage getSourceImage() {
+			return sourceImage;
+		}
+
+		public Quadrilateral getTargetArea() {
+			return targetArea;
+		}
+
+		public PseudoPerspective getPseudoPerspective() {
+			return pseudoPerspective;
+		}
+
+		public float getDepth() {
+			return depth;
+		}
+
+	}
+
+	/**
+	 * Projects the tiles of a target area. The shared data is only read, and each tile writes its own pixels of the
+	 * target image and its own cells of the projection state, so that tiles can be processed concurrently
+	 */
+	private class ProjectionTileProcessor implements ImageTileProcessor {
+
+		private Quadrilateral targetArea;
+
+		private PseudoPerspective pseudoPerspective;
+
+		private Rectangle rect;
+
+		private ScanlineSpans spans;
+
+		private ImageRaster source;
+
+		private ImageRaster target;
+
+		private ImageSampler imageSampler; // thread-safe, shared by all tiles
+
+		private EdgeSmoothingMask edgeSmoothingMask;
+
+		private ProjectionState projectionState;
+
+		private boolean reuseProjectionState;
+
+		private boolean mipmapping;
+
+		private boolean incrementalMapping;
+
+		private float sw;
+
+		private float sh;
+
+		private AlphaCompositingKernel compositingKernel;
+
+		private DirtyRegion dirtyRegion;
+
+		public ProjectionTileProcessor(BufferedImage sourceImage, BufferedImage targetImage, Quadrilateral targetArea,
+				PseudoPerspective pseudoPerspective, EdgeSmoothingMask edgeSmoothingMask,
+				ProjectionState projectionState, boolean reuseProjectionState, DirtyRegion dirtyRegion) {
+			this.targetArea = targetArea;
+			this.pseudoPerspective = pseudoPerspective;
+			this.rect = targetArea.getBoundingBox();
+			this.spans = new ScanlineSpans(targetArea);
+			this.source = ImageRaster.createImageRaster(sourceImage);
+			this.target = ImageRaster.createImageRaster(targetImage);
+			this.imageSampler = isSubSampling() ? createImageSampler(sourceImage) : null;
+			this.edgeSmoothingMask = edgeSmoothingMask;
+			this.projectionState = projectionState;
+			this.reuseProjectionState = reuseProjectionState;
+			this.mipmapping = imageSampler != null && isMipmapping();
+			this.incrementalMapping = isIncrementalMapping();
+			this.sw = ImageUtils.getWidth(sourceImage) - 1f;
+			this.sh = ImageUtils.getHeight(sourceImage) - 1f;
+			this.compositingKernel = AlphaCompositingKernel.getInstance();
+			this.dirtyRegion = dirtyRegion;
+		}
+
+		@Override
+		public void processTile(ImageTile tile) {
+			ComputeState computeState = reuseProjectionState ? null : createComputeState(targetArea, pseudoPerspective);
+			int txFrom = Math.max(tile.getX(), 0);
+			int txTo = Math.min(tile.getEndX(), target.getWidth());
+			// Columns whose source coordinates are computed, relative to the bounding box
+			int xiFrom = tile.getX() - rect.x;
+			int xiTo = tile.getEndX() - rect.x;
+			if (mipmapping) {
+				// the footprint of a target pixel follows from the source coordinates of its neighbours
+				xiFrom = Math.max(xiFrom - 1, 0);
+				xiTo = Math.min(xiTo + 1, rect.width);
+			}
+			int n = xiTo - xiFrom;
+			float[] rowSourceXs = new float[n];
+			float[] rowSourceYs = new float[n];
+			float[] previousRowSourceXs = null, previousRowSourceYs = null;
+			float[] footprints = null;
+			if (mipmapping) {
+				previousRowSourceXs = new float[n];
+				previousRowSourceYs = new float[n];
+				footprints = new float[n];
+				// the row above the tile, which becomes the previous row once the first row of the tile starts
+				if (tile.getY() > rect.y) {
+					computeRowSourceCoordinates(computeState, tile.getY() - 1, xiFrom, xiTo, rowSourceXs, rowSourceYs,
+							null);
+				} else {
+					Arrays.fill(rowSourceXs, Float.NaN);
+				}
+			}
+			float[] sampleXs = new float[n];
+			float[] sampleYs = new float[n];
+			int[] sampleIndices = new int[n];
+			int[] samples = new int[n];
+			int[] projectedRow = new int[Math.max(txTo - txFrom, 0)];
+			int[] targetRow = new int[projectedRow.length];
+			// the changed columns of each row of the tile, added to the dirty region once the tile is done
+			int[] changedFrom = null, changedTo = null;
+			if (dirtyRegion != null) {
+				changedFrom = new int[tile.getHeight()];
+				changedTo = new int[tile.getHeight()];
+			}
+			for (int ty = tile.getY(); ty < tile.getEndY(); ty++) {
+				if (mipmapping) {
+					float[] xs = previousRowSourceXs;
+					float[] ys = previousRowSourceYs;
+					previousRowSourceXs = rowSourceXs;
+					previousRowSourceYs = rowSourceYs;
+					rowSourceXs = xs;
+					rowSourceYs = ys;
+				}
+				computeRowSourceCoordinates(computeState, ty, xiFrom, xiTo, rowSourceXs, rowSourceYs, tile);
+				// Only the span of the row is projected onto the target
+				int spanFrom = Math.max(txFrom, spans.getSpanStart(ty));
+				int spanTo = Math.min(txTo, spans.getSpanEnd(ty));
+				boolean rowInsideTarget = ty >= 0 && ty < target.getHeight() && spanFrom < spanTo;
+				if (!rowInsideTarget)
+					continue;
+				// Collect the source coordinates of the span, to sample them in one batch
+				int sampleCount = 0;
+				for (int tx = spanFrom; tx < spanTo; tx++) {
+					int j = tx - rect.x - xiFrom;
+					if (!Float.isNaN(rowSourceXs[j])) {
+						sampleXs[sampleCount] = rowSourceXs[j];
+						sampleYs[sampleCount] = rowSourceYs[j];
+						sampleIndices[sampleCount++] = j;
+					}
+				}
+				if (imageSampler == null) {
+					for (int i = 0; i < sampleCount; i++) {
+						samples[i] = source.getRGB((int) Math.floor(sampleXs[i]), (int) Math.floor(sampleYs[i]));
+					}
+				} else if (mipmapping) {
+					computeFootprints(rowSourceXs, rowSourceYs, previousRowSourceXs, previousRowSourceYs,
+							sampleIndices, sampleCount, footprints);
+					imageSampler.sampleRGB(sampleXs, sampleYs, footprints, 0, sampleCount, samples, 0);
+				} else {
+					imageSampler.sampleRGB(sampleXs, sampleYs, 0, sampleCount, samples, 0);
+				}
+				// fully transparent, leaves the target pixel unchanged
+				Arrays.fill(projectedRow, 0, spanTo - spanFrom, 0);
+				// the interior of the edge smoothing mask is fully covered, and leaves the samples unchanged
+				int interiorStart = edgeSmoothingMask != null ? edgeSmoothingMask.getInteriorStart(ty) : 0;
+				int interiorEnd = edgeSmoothingMask != null ? edgeSmoothingMask.getInteriorEnd(ty) : 0;
+				for (int i = 0; i < sampleCount; i++) {
+					int tx = rect.x + xiFrom + sampleIndices[i];
+					int argb = samples[i];
+					if (edgeSmoothingMask != null && (tx < interiorStart || tx >= interiorEnd)) {
+						int alpha = edgeSmoothingMask.getMaskValue(tx, ty);
+						int sourceAlpha = (argb & 0xff000000) >>> 24;
+						if (sourceAlpha < 255) {
+							alpha = (int) Math.round((alpha / 255f) * sourceAlpha);
+						}
+						argb = (alpha << 24) | (argb & 0x00ffffff);
+					}
+					projectedRow[tx - spanFrom] = argb;
+				}
+				// composite the projected span onto the target in one pass
+				int length = spanTo - spanFrom;
+				target.getRow(spanFrom, ty, length, targetRow, 0);
+				compositingKernel.combineByTransparency(projectedRow, 0, targetRow, 0, length);
+				target.setRow(spanFrom, ty, length, targetRow, 0);
+				if (dirtyRegion != null) {
+					setChangedColumns(projectedRow, spanFrom, length, ty - tile.getY(), changedFrom, changedTo);
+				}
+			}
+			if (dirtyRegion != null) {
+				int tyFrom = Math.max(tile.getY(), 0);
+				int tyTo = Math.min(tile.getEndY(), target.getHeight());
+				if (tyFrom < tyTo) {
+					dirtyRegion.addSpans(tyFrom, tyTo - tyFrom, changedFrom, changedTo, tyFrom - tile.getY());
+				}
+			}
+		}
+
+		/**
+		 * Sets the changed columns of a row to the pixels of a projected row segment with a non-zero alpha, as only
+		 * these change the target
+		 */
+		private void setChangedColumns(int[] projectedRow, int tx, int length, int i, int[] changedFrom,
+				int[] changedTo) {
+			int from = 0;
+			while (from < length && (projectedRow[from] & 0xff000000) == 0)
+				from++;
+			int to = length;
+			while (to > from && (projectedRow[to - 1] & 0xff000000) == 0)
+				to--;
+			changedFrom[i] = tx + from;
+			changedTo[i] = tx + to;
+		}
+
+		/**
+		 * Computes the source coordinates of a row of target pixels, in pixels of the source image. The coordinates
+		 * are NaN for target pixels outside the target area, and are only computed within the span of the row. When
+		 * a tile is given, the projection state is updated for the columns of that tile
+		 */
+		private void computeRowSourceCoordinates(ComputeState computeState, int ty, int xiFrom, int xiTo,
+				float[] sourceXs, float[] sourceYs, ImageTile tile) {
+			int yi = ty - rect.y;
+			int spanFrom = spans.getSpanStart(ty) - rect.x;
+			int spanTo = spans.getSpanEnd(ty) - rect.x;
+			boolean updateProjectionState = tile != null && projectionState != null && !reuseProjectionState;
+			for (int xi = xiFrom; xi < xiTo; xi++) {
+				float srx = Float.NaN;
+				float sry = Float.NaN;
+				if (xi < spanFrom || xi >= spanTo) {
+					if (updateProjectionState && rect.x + xi >= tile.getX() && rect.x + xi < tile.getEndX()) {
+						projectionState.setRelativeSourceXCoordinate(xi, yi, srx);
+						projectionState.setRelativeSourceYCoordinate(xi, yi, sry);
+					}
+				} else if (reuseProjectionState) {
+					srx = projectionState.getRelativeSourceXCoordinate(xi, yi);
+					sry = projectionState.getRelativeSourceYCoordinate(xi, yi);
+				} else {
+					Point2D.Float srloc = null;
+					if (incrementalMapping) {
+						if (xi == Math.max(spanFrom, xiFrom)) {
+							computeState.beginRow(rect.x + xi, ty);
+						}
+						srloc = computeState.projectNext();
+					} else {
+						srloc = computeState.projectTo(rect.x + xi, ty);
+					}
+					if (srloc != null) {
+						srx = srloc.x;
+						sry = srloc.y;
+					}
+					if (updateProjectionState && rect.x + xi >= tile.getX() && rect.x + xi < tile.getEndX()) {
+						projectionState.setRelativeSourceXCoordinate(xi, yi, srx);
+						projectionState.setRelativeSourceYCoordinate(xi, yi, sry);
+					}
+				}
+				if (!Float.isNaN(srx)) {
+					if (isFlipHorizontally())
+						srx = 1f - srx;
+					if (isFlipVertically())
+						sry = 1f - sry;
+				}
+				sourceXs[xi - xiFrom] = 0.5f + srx * sw; // NaN when outside the target area
+				sourceYs[xi - xiFrom] = 0.5f + sry * sh;
+			}
+		}
+
+	}
+
+	/**
+	 * Computes the footprint of target pixels in the source image, as the largest distance between the source
+	 * coordinates of a target pixel and those of its horizontal and vertical neighbours
+	 */
+	private static void computeFootprints(float[] rowSourceXs, float[] rowSourceYs, float[] previousRowSourceXs,
+			float[] previousRowSourceYs, int[] indices, int count, float[] footprints) {
+		int width = rowSourceXs.length;
+		for (int i = 0; i < count; i++) {
+			int xi = indices[i];
+			float sx = rowSourceXs[xi];
+			float sy = rowSourceYs[xi];
+			int nxi = xi + 1 < width && !Float.isNaN(rowSourceXs[xi + 1]) ? xi + 1 : xi - 1;
+			float dx = 0f, dy = 0f;
+			if (nxi >= 0 && !Float.isNaN(rowSourceXs[nxi])) {
+				dx = distanceSq(sx, sy, rowSourceXs[nxi], rowSourceYs[nxi]);
+			}
+			if (!Float.isNaN(previousRowSourceXs[xi])) {
+				dy = distanceSq(sx, sy, previousRowSourceXs[xi], previousRowSourceYs[xi]);
+			}
+			footprints[i] = (float) Math.sqrt(Math.max(dx, dy));
+		}
+	}
+
+	private static float distanceSq(float x1, float y1, float x2, float y2) {
+		return (x2 - x1) * (x2 - x1) + (y2 - y1) * (y2 - y1);
+	}
+
+	/**
+	 * The span of columns of each row of the bounding box of a target area that needs to be projected. A span holds
+	 * the pixels whose center lies inside the convex hull of the target area, widened by a fringe of one pixel at
+	 * either side to account for rounding. Pixels outside the span are not evaluated
+	 */
+	private static class ScanlineSpans {
+
+		private static final int FRINGE = 1;
+
+		private int y0;
+
+		private int[] spanStarts;
+
+		private int[] spanEnds;
+
+		public ScanlineSpans(Quadrilateral area) {
+			Rectangle rect = area.getBoundingBox();
+			Point[] vertices = new Point[] { area.getUpperLeftVertex(), area.getUpperRightVertex(),
+					area.getBottomRightVertex(), area.getBottomLeftVertex() };
+			this.y0 = rect.y;
+			int height = Math.max(rect.height, 0);
+			this.spanStarts = new int[height];
+			this.spanEnds = new int[height];
+			for (int yi = 0; yi < height; yi++) {
+				float y = rect.y + yi + 0.5f;
+				float xmin = Float.POSITIVE_INFINITY;
+				float xmax = Float.NEGATIVE_INFINITY;
+				// the segments between any 2 vertices include the edges of the convex hull, which bounds the area also
+				// when the quadrilateral is not convex
+				for (int i = 0; i < vertices.length; i++) {
+					for (int j = i + 1; j < vertices.length; j++) {
+						Point p = vertices[i];
+						Point q = vertices[j];
+						float px = p.x + 0.5f, py = p.y + 0.5f;
+						float qx = q.x + 0.5f, qy = q.y + 0.5f;
+						if (py == qy) {
+							if (y == py) {
+								xmin = Math.min(xmin, Math.min(px, qx));
+								xmax = Math.max(xmax, Math.max(px, qx));
+							}
+						} else if (y >= Math.min(py, qy) && y <= Math.max(py, qy)) {
+							float x = px + (y - py) * (qx - px) / (qy - py);
+							xmin = Math.min(xmin, x);
+							xmax = Math.max(xmax, x);
+						}
+					}
+				}
+				if (xmin <= xmax) {
+					spanStarts[yi] = Math.max((int) Math.floor(xmin) - FRINGE, rect.x);
+					spanEnds[yi] = Math.min((int) Math.ceil(xmax) + FRINGE, rect.x + rect.width);
+				} else {
+					spanStarts[yi] = rect.x;
+					spanEnds[yi] = rect.x;
+				}
+			}
+		}
+
+		public int getSpanStart(int y) {
+			return spanStarts[y - y0];
+		}
+
+		/**
+		 * Returns the end of the span of a row, exclusive
+		 */
+		public int getSpanEnd(int y) {
+			return spanEnds[y - y0];
+		}
+
+	}
+
+	/**
+	 * Maps target pixels to relative locations in the source image
+	 */
+	private static abstract class ComputeState {
+
+		private Point2D.Float relativeSourceLocation = new Point2D.Float(); // for reuse
+
+		/**
+		 * Projects a target pixel
+		 * 
+		 * @param tx
+		 *            The x coordinate of the target pixel
+		 * @param ty
+		 *            The y coordinate of the target pixel
+		 * @return The relative source location, or <code>null</code> when the target pixel lies outside the target
+		 *         area. The returned instance is reused by subsequent calls
+		 */
+		public abstract Point2D.Float projectTo(int tx, int ty);
+
+		/**
+		 * Starts projecting a row of target pixels incrementally, from left to right
+		 * 
+		 * @param tx
+		 *            The x coordinate of the first target pixel
+		 * @param ty
+		 *            The y coordinate of the row
+		 * @see #projectNext()
+		 */
+		public abstract void beginRow(int tx, int ty);
+
+		/**
+		 * Projects the next target pixel of the current row, and advances to the pixel to its right
+		 * 
+		 * @return The relative source location, or <code>null</code> when the target pixel lies outside the target
+		 *         area. The returned instance is reused by subsequent calls
+		 * @see #beginRow(int, int)
+		 */
+		public abstract Point2D.Float projectNext();
+
+		protected Point2D.Float updateRelativeSourceLocation(float x, float y) {
+			relativeSourceLocation.x = x;
+			relativeSourceLocation.y = y;
+			return relativeSourceLocation;
+		}
+
+	}
+
+	private static class BilinearComputeState extends ComputeState {
 
 		private float p1x, p1y;
 
@@ -403,9 +1212,17 @@ public class QuadrilateralImageProjection {
 
 		private float ex, ey;
 
-		private Point2D.Float relativeSourceLocation = new Point2D.Float(); // for reuse
+		private double rowDx; // the terms of the mapping along the current row, see beginRow()
+
+		private double rowEb;
+
+		private double rowDiscriminant;
+
+		private double rowDiscriminantDelta;
 
-		public ComputeState(Quadrilateral targetArea, PseudoPerspective pseudoPerspective) {
+		private double rowDiscriminantDelta2;
+
+		public BilinearComputeState(Quadrilateral targetArea, PseudoPerspective pseudoPerspective) {
 			this.p1x = targetArea.getUpperLeftVertex().x + 0.5f;
 			this.p1y = targetArea.getUpperLeftVertex().y + 0.5f;
 			this.p2x = targetArea.getUpperRightVertex().x + 0.5f;
@@ -426,6 +1243,7 @@ public class QuadrilateralImageProjection {
 			this.ey = computeVerticalExponent(targetArea, pseudoPerspective);
 		}
 
+		@Override
 		public Point2D.Float projectTo(int tx, int ty) {
 			float qx = tx + 0.5f;
 			float qy = ty + 0.5f;
@@ -437,12 +1255,63 @@ public class QuadrilateralImageProjection {
 			float cf = c - f;
 			float ad = a - d;
 			float beta = (eb + (float) Math.sqrt(eb * eb - 4f * cf * ad)) / (2f * cf);
+			return toRelativeSourceLocation(qx - p1x, beta);
+		}
+
+		/**
+		 * Starts projecting a row of target pixels incrementally, from left to right
+		 * 
+		 * <p>
+		 * Along a row, the terms of the inverse mapping in {@link #projectTo(int, int)} change linearly with the x
+		 * coordinate, and the discriminant quadratically. These are updated by forward differencing, with additions
+		 * only, leaving a square root and a division per pixel. The terms are kept in double precision, so that they
+		 * do not drift along long rows.
+		 * </p>
+		 * 
+		 * @param tx
+		 *            The x coordinate of the first target pixel
+		 * @param ty
+		 *            The y coordinate of the row
+		 * @see #projectNext()
+		 */
+		@Override
+		public void beginRow(int tx, int ty) {
+			double dx = tx + 0.5 - p1x;
+			double dy = ty + 0.5 - p1y;
+			double eb = dy * vx - e0 - (dx * vy - b0);
+			double ad = dx * a0 - dy * d0;
+			double cf = c - f;
+			rowDx = dx;
+			rowEb = eb;
+			rowDiscriminant = eb * eb - 4.0 * cf * ad;
+			rowDiscriminantDelta = -2.0 * eb * vy + (double) vy * vy - 4.0 * cf * a0;
+			rowDiscriminantDelta2 = 2.0 * vy * vy;
+		}
+
+		/**
+		 * Projects the next target pixel of the current row, and advances to the pixel to its right
+		 * 
+		 * @return The relative source location, or <code>null</code> when the target pixel lies outside the target
+		 *         area. The returned instance is reused by subsequent calls
+		 * @see #beginRow(int, int)
+		 */
+		@Override
+		public Point2D.Float projectNext() {
+			float beta = (float) ((rowEb + Math.sqrt(rowDiscriminant)) / (2.0 * (c - f)));
+			float dx = (float) rowDx;
+			rowDx += 1.0;
+			rowEb -= vy;
+			rowDiscriminant += rowDiscriminantDelta;
+			rowDiscriminantDelta += rowDiscriminantDelta2;
+			return toRelativeSourceLocation(dx, beta);
+		}
+
+		private Point2D.Float toRelativeSourceLocation(float dx, float beta) {
 			if (beta >= 0f && beta <= 1f) {
-				float alpha = (qx - p1x - beta * (p3x - p1x)) / (d0 + beta * vx);
+				float alpha = (dx - beta * (p3x - p1x)) / (d0 + beta * vx);
 				if (alpha >= 0f && alpha <= 1f) {
-					relativeSourceLocation.x = ex == 1f ? alpha : (float) Math.pow(alpha, ex);
-					relativeSourceLocation.y = ey == 1f ? beta : (float) Math.pow(beta, ey);
-					return relativeSourceLocation;
+					return updateRelativeSourceLocation(ex == 1f ? alpha : (float) Math.pow(alpha, ex),
+							ey == 1f ? beta : (float) Math.pow(beta, ey));
 				}
 			}
 			return null;
@@ -470,27 +1339,323 @@ public class QuadrilateralImageProjection {
 
 	}
 
+	/**
+	 * Projective mapping of target pixels, by the inverse of the homography that maps the unit square onto the target
+	 * area
+	 * 
+	 * <p>
+	 * The inverse homography yields homogeneous coordinates (u, v, w) for a target pixel, which change linearly with
+	 * the x coordinate. Along a row, they are updated by adding the first column of the inverse matrix, leaving a
+	 * single division per pixel. A target area whose vertices are collinear has no homography, and maps no pixels.
+	 * </p>
+	 */
+	private static class ProjectiveComputeState extends ComputeState {
+
+		private double[] inverse; // 3x3 in row-major order, or null when the target area is degenerate
+
+		private double rowU; // the homogeneous coordinates of the next pixel in the current row, see beginRow()
+
+		private double rowV;
+
+		private double rowW;
+
+		public ProjectiveComputeState(Quadrilateral targetArea) {
+			try {
+				TransformMatrix2D matrix = Transformation2D.getInverseMatrix(createHomography(targetArea));
+				this.inverse = new double[9];
+				for (int i = 0; i < 9; i++) {
+					inverse[i] = matrix.getValue(i / 3, i % 3);
+				}
+			} catch (MatrixInversionException e) {
+				this.inverse = null;
+			}
+		}
+
+		/**
+		 * Creates the homography that maps the corners of the unit square onto the pixel centers of the vertices of
+		 * the target area, in clockwise order starting from the origin and the upper left vertex
+		 */
+		private static TransformMatrix2D createHomography(Quadrilateral targetArea) {
+			double x0 = targetArea.getUpperLeftVertex().x + 0.5, y0 = targetArea.getUpperLeftVertex().y + 0.5;
+			double x1 = targetArea.getUpperRightVertex().x + 0.5, y1 = targetArea.getUpperRightVertex().y + 0.5;
+			double x2 = targetArea.getBottomRightVertex().x + 0.5, y2 = targetArea.getBottomRightVertex().y + 0.5;
+			double x3 = targetArea.getBottomLeftVertex().x + 0.5, y3 = targetArea.getBottomLeftVertex().y + 0.5;
+			double sx = x0 - x1 + x2 - x3;
+			double sy = y0 - y1 + y2 - y3;
+			double dx1 = x1 - x2, dx2 = x3 - x2;
+			double dy1 = y1 - y2, dy2 = y3 - y2;
+			double den = dx1 * dy2 - dx2 * dy1;
+			if (den == 0)
+				throw new MatrixInversionException("The target area is degenerate");
+			double g = (sx * dy2 - dx2 * sy) / den;
+			double h = (dx1 * sy - sx * dy1) / den;
+			return new TransformMatrix2D(new double[] { x1 - x0 + g * x1, x3 - x0 + h * x3, x0, y1 - y0 + g * y1,
+					y3 - y0 + h * y3, y0, g, h, 1.0 });
+		}
+
+		@Override
+		public Point2D.Float projectTo(int tx, int ty) {
+			beginRow(tx, ty);
+			return projectNext();
+		}
+
+		@Override
+		public void beginRow(int tx, int ty) {
+			if (inverse != null) {
+				double qx = tx + 0.5;
+				double qy = ty + 0.5;
+				rowU = inverse[0] * qx + inverse[1] * qy + inverse[2];
+				rowV = inverse[3] * qx + inverse[4] * qy + inverse[5];
+				rowW = inverse[6] * qx + inverse[7] * qy + inverse[8];
+			}
+		}
+
+		@Override
+		public Point2D.Float projectNext() {
+			if (inverse == null)
+				return null;
+			double r = 1.0 / rowW;
+			float u = (float) (rowU * r);
+			float v = (float) (rowV * r);
+			rowU += inverse[0];
+			rowV += inverse[3];
+			rowW += inverse[6];
+			if (u >= 0f && u <= 1f && v >= 0f && v <= 1f) {
+				return updateRelativeSourceLocation(u, v);
+			}
+			return null;
+		}
+
+	}
+
+	/**
+	 * The coverage of target pixels by the antialiased outline of a target area, in the range [0, 255]
+	 * 
+	 * <p>
+	 * Only the fringe of the outline is stored. Every row of the target image holds an extent of covered pixels, and
+	 * within that extent an interior run of fully covered pixels. The coverage is stored for the pixels of the extent
+	 * that are not in the interior run, which are the pixels near the left and right edges of the outline. The
+	 * outline is rasterized by Java2D antialiasing in strips of rows, so that the mask never takes the memory of a
+	 * full target image.
+	 * </p>
+	 */
 	private static class EdgeSmoothingMask {
 
-		private BufferedImage maskImage;
+		private static final int STRIP_HEIGHT = 64;
+
+		private static final int[] GRAY_TO_MASK_VALUE = createGrayToMaskValues();
+
+		private int y0;
+
+		private int[] extentStarts;
+
+		private int[] extentEnds;
+
+		private int[] interiorStarts;
+
+		private int[] interiorEnds;
+
+		private int[] fringeOffsets;
+
+		private byte[] fringeValues;
+
+		private EdgeSmoothingMask() {
+		}
 
 		public EdgeSmoothingMask(Dimension size, Quadrilateral area) {
-			this.maskImage = createMaskImage(size, area);
+			Shape outline = area.getOutline();
+			Rectangle bounds = outline.getBounds().intersection(new Rectangle(size));
+			this.y0 = bounds.y;
+			int height = Math.max(bounds.height, 0);
+			this.extentStarts = new int[height];
+			this.extentEnds = new int[height];
+			this.interiorStarts = new int[height];
+			this.interiorEnds = new int[height];
+			this.fringeOffsets = new int[height + 1];
+			if (bounds.isEmpty()) {
+				this.fringeValues = new byte[0];
+			} else {
+				this.fringeValues = rasterize(outline, bounds);
+			}
 		}
 
-		private static BufferedImage createMaskImage(Dimension size, Quadrilateral area) {
-			BufferedImage mask = new BufferedImage(size.width, size.height, BufferedImage.TYPE_BYTE_GRAY);
-			ImageUtils.clearWithUniformColor(mask, Color.BLACK);
-			Graphics2D g2 = mask.createGraphics();
-			g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-			g2.setColor(Color.WHITE);
-			g2.fill(area.getOutline());
-			g2.dispose();
-			return mask;
+		private byte[] rasterize(Shape outline, Rectangle bounds) {
+			int width = bounds.width;
+			BufferedImage strip = new BufferedImage(width, Math.min(STRIP_HEIGHT, bounds.height),
+					BufferedImage.TYPE_BYTE_GRAY);
+			int[] grayRow = new int[width];
+			byte[] fringe = new byte[width];
+			Vector<byte[]> fringes = new Vector<byte[]>(bounds.height);
+			int fringeOffset = 0;
+			for (int stripY = 0; stripY < bounds.height; stripY += strip.getHeight()) {
+				ImageUtils.clearWithUniformColor(strip, Color.BLACK);
+				Graphics2D g2 = strip.createGraphics();
+				g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+				g2.setColor(Color.WHITE);
+				g2.translate(-bounds.x, -bounds.y - stripY);
+				g2.fill(outline);
+				g2.dispose();
+				int rows = Math.min(strip.getHeight(), bounds.height - stripY);
+				for (int r = 0; r < rows; r++) {
+					int yi = stripY + r;
+					strip.getRaster().getSamples(0, r, width, 1, 0, grayRow);
+					int fringeLength = scanRow(grayRow, bounds.x, yi, fringe);
+					fringes.add(Arrays.copyOf(fringe, fringeLength));
+					fringeOffset += fringeLength;
+					fringeOffsets[yi + 1] = fringeOffset;
+				}
+			}
+			byte[] values = new byte[fringeOffset];
+			for (int yi = 0; yi < fringes.size(); yi++) {
+				byte[] rowFringe = fringes.get(yi);
+				System.arraycopy(rowFringe, 0, values, fringeOffsets[yi], rowFringe.length);
+			}
+			return values;
+		}
+
+		/**
+		 * Determines the extent and interior run of a row from its gray levels, and collects the mask values of the
+		 * fringe. Rows with gaps in between fully covered pixels, as in a non-convex outline, have no interior run
+		 * and the whole extent is stored as fringe
+		 */
+		private int scanRow(int[] grayRow, int x0, int yi, byte[] fringe) {
+			int width = grayRow.length;
+			int start = 0;
+			while (start < width && grayRow[start] == 0)
+				start++;
+			int end = width;
+			while (end > start && grayRow[end - 1] == 0)
+				end--;
+			int interiorStart = start;
+			while (interiorStart < end && grayRow[interiorStart] != 255)
+				interiorStart++;
+			int interiorEnd = end;
+			while (interiorEnd > interiorStart && grayRow[interiorEnd - 1] != 255)
+				interiorEnd--;
+			for (int x = interiorStart; x < interiorEnd; x++) {
+				if (grayRow[x] != 255) {
+					interiorStart = interiorEnd = end;
+					break;
+				}
+			}
+			int fringeLength = 0;
+			for (int x = start; x < end; x++) {
+				if (x < interiorStart || x >= interiorEnd) {
+					fringe[fringeLength++] = (byte) toMaskValue(grayRow[x]);
+				}
+			}
+			extentStarts[yi] = x0 + start;
+			extentEnds[yi] = x0 + end;
+			interiorStarts[yi] = x0 + interiorStart;
+			interiorEnds[yi] = x0 + interiorEnd;
+			return fringeLength;
+		}
+
+		/**
+		 * Converts gray levels to mask values the way <code>BufferedImage.getRGB</code> does, as the gray color space
+		 * of the mask is linear
+		 */
+		private static int[] createGrayToMaskValues() {
+			BufferedImage levels = new BufferedImage(256, 1, BufferedImage.TYPE_BYTE_GRAY);
+			int[] values = new int[256];
+			for (int i = 0; i < values.length; i++) {
+				levels.getRaster().setSample(i, 0, 0, i);
+				values[i] = levels.getRGB(i, 0) & 0xff;
+			}
+			return values;
+		}
+
+		private static int toMaskValue(int gray) {
+			return GRAY_TO_MASK_VALUE[gray];
 		}
 
 		public int getMaskValue(int x, int y) {
-			return maskImage.getRGB(x, y) & 0xff;
+			int yi = y - y0;
+			if (yi < 0 || yi >= extentStarts.length)
+				return 0;
+			if (x < extentStarts[yi] || x >= extentEnds[yi])
+				return 0;
+			if (x >= interiorStarts[yi] && x < interiorEnds[yi])
+				return 255;
+			int offset = x - extentStarts[yi];
+			if (x >= interiorEnds[yi]) {
+				offset -= interiorEnds[yi] - interiorStarts[yi];
+			}
+			return fringeValues[fringeOffsets[yi] + offset] & 0xff;
+		}
+
+		/**
+		 * Returns the first column of the interior run of a row
+		 * 
+		 * @param y
+		 *            The row in the target image
+		 * @return The first column of the run of fully covered pixels in the given row. The run is empty when it
+		 *         ends at or before its start
+		 * @see #getInteriorEnd(int)
+		 */
+		public int getInteriorStart(int y) {
+			int yi = y - y0;
+			return yi >= 0 && yi < interiorStarts.length ? interiorStarts[yi] : 0;
+		}
+
+		/**
+		 * Returns the end of the interior run of a row
+		 * 
+		 * @param y
+		 *            The row in the target image
+		 * @return The column following the run of fully covered pixels in the given row
+		 * @see #getInteriorStart(int)
+		 */
+		public int getInteriorEnd(int y) {
+			int yi = y - y0;
+			return yi >= 0 && yi < interiorEnds.length ? interiorEnds[yi] : 0;
+		}
+
+		public long getSizeInBytes() {
+			return fringeValues.length + 4L * (5 * extentStarts.length + 1) + 96L;
+		}
+
+		public void writeTo(ProjectionStore.Writer writer) throws IOException {
+			int height = extentStarts.length;
+			writer.putInt(y0);
+			writer.putInt(height);
+			writer.putInt(fringeValues.length);
+			writer.putPadding();
+			int[][] rows = new int[][] { extentStarts, extentEnds, interiorStarts, interiorEnds, fringeOffsets };
+			for (int i = 0; i < rows.length; i++) {
+				for (int j = 0; j < rows[i].length; j++) {
+					writer.putInt(rows[i][j]);
+				}
+			}
+			for (int i = 0; i < fringeValues.length; i++) {
+				writer.putByte(fringeValues[i]);
+			}
+		}
+
+		/**
+		 * Reads a mask from a mapped projection store. A mask is small, and is copied onto the heap
+		 */
+		public static EdgeSmoothingMask readFrom(ByteBuffer buffer) {
+			EdgeSmoothingMask mask = new EdgeSmoothingMask();
+			mask.y0 = buffer.getInt();
+			int height = buffer.getInt();
+			int fringeLength = buffer.getInt();
+			ProjectionStore.skipPadding(buffer);
+			mask.extentStarts = readInts(buffer, height);
+			mask.extentEnds = readInts(buffer, height);
+			mask.interiorStarts = readInts(buffer, height);
+			mask.interiorEnds = readInts(buffer, height);
+			mask.fringeOffsets = readInts(buffer, height + 1);
+			mask.fringeValues = new byte[fringeLength];
+			buffer.get(mask.fringeValues);
+			return mask;
+		}
+
+		private static int[] readInts(ByteBuffer buffer, int length) {
+			int[] values = new int[length];
+			buffer.asIntBuffer().get(values);
+			buffer.position(buffer.position() + 4 * length);
+			return values;
 		}
 
 	}
@@ -524,6 +1689,18 @@ public class QuadrilateralImageProjection {
 					&& Objects.equals(getTargetArea(), other.getTargetArea());
 		}
 
+		public void writeTo(ProjectionStore.Writer writer) throws IOException {
+			writer.putInt(getTargetImageSize().width);
+			writer.putInt(getTargetImageSize().height);
+			getTargetArea().writeTo(writer);
+		}
+
+		public static EdgeSmoothingMaskCacheKey readFrom(ByteBuffer buffer) {
+			int width = buffer.getInt();
+			int height = buffer.getInt();
+			return new EdgeSmoothingMaskCacheKey(new Dimension(width, height), Quadrilateral.readFrom(buffer));
+		}
+
 		private Dimension getTargetImageSize() {
 			return targetImageSize;
 		}
@@ -534,32 +1711,301 @@ public class QuadrilateralImageProjection {
 
 	}
 
-	private static class ProjectionState {
+	/**
+	 * The source coordinates of all pixels in the bounding box of a target area, relative to the source image width
+	 * and height. The coordinates are NaN for pixels outside the target area. Pixels are laid out row by row, so that
+	 * the coordinates of a row are read sequentially
+	 */
+	private static abstract class ProjectionState {
+
+		private int width;
+
+		private int height;
 
-		private float[][] relativeSourceXCoordinates;
+		protected ProjectionState(Quadrilateral targetArea) {
+			this(Math.max(targetArea.getBoundingBox().width, 0), Math.max(targetArea.getBoundingBox().height, 0));
+		}
+
+		protected ProjectionState(int width, int height) {
+			this.width = width;
+			this.height = height;
+		}
 
-		private float[][] relativeSourceYCoordinates;
+		/**
+		 * Reads a projection state from a mapped projection store, without copying its coordinates onto the heap
+		 */
+		public static ProjectionState readFrom(ByteBuffer buffer) {
+			boolean compact = buffer.get() != 0;
+			int width = buffer.getInt();
+			int height = buffer.getInt();
+			ProjectionStore.skipPadding(buffer);
+			return new MappedProjectionState(buffer, width, height, compact);
+		}
 
-		public ProjectionState(Quadrilateral targetArea) {
-			Rectangle rect = targetArea.getBoundingBox();
-			this.relativeSourceXCoordinates = new float[rect.height][rect.width];
-			this.relativeSourceYCoordinates = new float[rect.height][rect.width];
+		/**
+		 * Writes this projection state to a projection store, in the layout of a <code>FloatProjectionState</code>
+		 * or a <code>CompactProjectionState</code>, which is also the layout that is mapped by a
+		 * <code>MappedProjectionState</code>
+		 */
+		public abstract void writeTo(ProjectionStore.Writer writer) throws IOException;
+
+		protected void writeHeaderTo(ProjectionStore.Writer writer, boolean compact) throws IOException {
+			writer.putByte(compact ? 1 : 0);
+			writer.putInt(getWidth());
+			writer.putInt(getHeight());
+			writer.putPadding();
 		}
 
+		public abstract float getRelativeSourceXCoordinate(int xi, int yi);
+
+		public abstract void setRelativeSourceXCoordinate(int xi, int yi, float coord);
+
+		public abstract float getRelativeSourceYCoordinate(int xi, int yi);
+
+		public abstract void setRelativeSourceYCoordinate(int xi, int yi, float coord);
+
+		/**
+		 * Returns the heap memory taken by this state
+		 * 
+		 * @return The size in bytes, excluding data that is memory-mapped from a projection store
+		 */
+		public abstract long getSizeInBytes();
+
+		protected int getIndex(int xi, int yi) {
+			return yi * width + xi;
+		}
+
+		public int getWidth() {
+			return width;
+		}
+
+		public int getHeight() {
+			return height;
+		}
+
+	}
+
+	/**
+	 * Projection state in floating point precision, with the X and Y coordinates of a pixel next to each other in a
+	 * single array
+	 */
+	private static class FloatProjectionState extends ProjectionState {
+
+		private float[] relativeSourceCoordinates;
+
+		public FloatProjectionState(Quadrilateral targetArea) {
+			super(targetArea);
+			this.relativeSourceCoordinates = new float[2 * getWidth() * getHeight()];
+		}
+
+		@Override
+		public float getRelativeSourceXCoordinate(int xi, int yi) {
+			return relativeSourceCoordinates[2 * getIndex(xi, yi)];
+		}
+
+		@Override
+		public void setRelativeSourceXCoordinate(int xi, int yi, float coord) {
+			relativeSourceCoordinates[2 * getIndex(xi, yi)] = coord;
+		}
+
+		@Override
+		public float getRelativeSourceYCoordinate(int xi, int yi) {
+			return relativeSourceCoordinates[2 * getIndex(xi, yi) + 1];
+		}
+
+		@Override
+		public void setRelativeSourceYCoordinate(int xi, int yi, float coord) {
+			relativeSourceCoordinates[2 * getIndex(xi, yi) + 1] = coord;
+		}
+
+		@Override
+		public long getSizeInBytes() {
+			return 4L * relativeSourceCoordinates.length + 16L;
+		}
+
+		@Override
+		public void writeTo(ProjectionStore.Writer writer) throws IOException {
+			writeHeaderTo(writer, false);
+			for (int i = 0; i < relativeSourceCoordinates.length; i++) {
+				writer.putFloat(relativeSourceCoordinates[i]);
+			}
+		}
+
+	}
+
+	/**
+	 * Projection state in 16-bit fixed point, with the X and Y coordinates of a pixel next to each other in a single
+	 * array. Pixels outside the target area are marked in a separate bit mask, whose rows start at a word boundary so
+	 * that tiles of different rows never share a word. Tiles of the same row may share a word, which is why the
+	 * mask is updated atomically
+	 */
+	private static class CompactProjectionState extends ProjectionState {
+
+		private static final float FIXED_POINT_ONE = 65535f;
+
+		private char[] relativeSourceCoordinates;
+
+		private AtomicLongArray outsideMask;
+
+		private int outsideMaskWordsPerRow;
+
+		public CompactProjectionState(Quadrilateral targetArea) {
+			super(targetArea);
+			this.relativeSourceCoordinates = new char[2 * getWidth() * getHeight()];
+			this.outsideMaskWordsPerRow = (getWidth() + 63) >>> 6;
+			this.outsideMask = new AtomicLongArray(outsideMaskWordsPerRow * getHeight());
+		}
+
+		@Override
+		public float getRelativeSourceXCoordinate(int xi, int yi) {
+			return getRelativeSourceCoordinate(xi, yi, 0);
+		}
+
+		@Override
+		public void setRelativeSourceXCoordinate(int xi, int yi, float coord) {
+			setRelativeSourceCoordinate(xi, yi, 0, coord);
+		}
+
+		@Override
+		public float getRelativeSourceYCoordinate(int xi, int yi) {
+			return getRelativeSourceCoordinate(xi, yi, 1);
+		}
+
+		@Override
+		public void setRelativeSourceYCoordinate(int xi, int yi, float coord) {
+			setRelativeSourceCoordinate(xi, yi, 1, coord);
+		}
+
+		private float getRelativeSourceCoordinate(int xi, int yi, int offset) {
+			if (isOutside(xi, yi))
+				return Float.NaN;
+			return relativeSourceCoordinates[2 * getIndex(xi, yi) + offset] / FIXED_POINT_ONE;
+		}
+
+		private void setRelativeSourceCoordinate(int xi, int yi, int offset, float coord) {
+			if (Float.isNaN(coord)) {
+				setOutside(xi, yi, true);
+			} else {
+				setOutside(xi, yi, false);
+				float clamped = Math.max(Math.min(coord, 1f), 0f);
+				relativeSourceCoordinates[2 * getIndex(xi, yi) + offset] = (char) Math.round(clamped
+						* FIXED_POINT_ONE);
+			}
+		}
+
+		private boolean isOutside(int xi, int yi) {
+			long word = outsideMask.get(yi * outsideMaskWordsPerRow + (xi >>> 6));
+			return (word & (1L << xi)) != 0L;
+		}
+
+		private void setOutside(int xi, int yi, boolean outside) {
+			int i = yi * outsideMaskWordsPerRow + (xi >>> 6);
+			long bit = 1L << xi; // shifts modulo 64
+			long word = outsideMask.get(i);
+			long newWord = outside ? word | bit : word & ~bit;
+			while (newWord != word && !outsideMask.compareAndSet(i, word, newWord)) {
+				word = outsideMask.get(i);
+				newWord = outside ? word | bit : word & ~bit;
+			}
+		}
+
+		@Override
+		public long getSizeInBytes() {
+			return 2L * relativeSourceCoordinates.length + 8L * outsideMask.length() + 32L;
+		}
+
+		@Override
+		public void writeTo(ProjectionStore.Writer writer) throws IOException {
+			writeHeaderTo(writer, true);
+			for (int i = 0; i < outsideMask.length(); i++) {
+				writer.putLong(outsideMask.get(i));
+			}
+			for (int i = 0; i < relativeSourceCoordinates.length; i++) {
+				writer.putChar(relativeSourceCoordinates[i]);
+			}
+		}
+
+	}
+
+	/**
+	 * Projection state that is read from a memory-mapped projection store, in the floating point or the fixed point
+	 * layout. It is read-only, as remembered projection data is only ever reused
+	 */
+	private static class MappedProjectionState extends ProjectionState {
+
+		private FloatBuffer relativeSourceCoordinates; // in the floating point layout, otherwise null
+
+		private CharBuffer fixedPointRelativeSourceCoordinates; // in the fixed point layout, otherwise null
+
+		private LongBuffer outsideMask; // in the fixed point layout, otherwise null
+
+		private int outsideMaskWordsPerRow;
+
+		public MappedProjectionState(ByteBuffer buffer, int width, int height, boolean compact) {
+			super(width, height);
+			int coordinates = 2 * width * height;
+			if (compact) {
+				this.outsideMaskWordsPerRow = (width + 63) >>> 6;
+				int maskWords = outsideMaskWordsPerRow * height;
+				this.outsideMask = ProjectionStore.slice(buffer, 8 * maskWords).asLongBuffer();
+				this.fixedPointRelativeSourceCoordinates = ProjectionStore.slice(buffer, 2 * coordinates)
+						.asCharBuffer();
+			} else {
+				this.relativeSourceCoordinates = ProjectionStore.slice(buffer, 4 * coordinates).asFloatBuffer();
+			}
+		}
+
+		@Override
 		public float getRelativeSourceXCoordinate(int xi, int yi) {
-			return relativeSourceXCoordinates[yi][xi];
+			return getRelativeSourceCoordinate(xi, yi, 0);
 		}
 
+		@Override
 		public void setRelativeSourceXCoordinate(int xi, int yi, float coord) {
-			relativeSourceXCoordinates[yi][xi] = coord;
+			throw new UnsupportedOperationException("Stored projection data is read-only");
 		}
 
+		@Override
 		public float getRelativeSourceYCoordinate(int xi, int yi) {
-			return relativeSourceYCoordinates[yi][xi];
+			return getRelativeSourceCoordinate(xi, yi, 1);
 		}
 
+		@Override
 		public void setRelativeSourceYCoordinate(int xi, int yi, float coord) {
-			relativeSourceYCoordinates[yi][xi] = coord;
+			throw new UnsupportedOperationException("Stored projection data is read-only");
+		}
+
+		private float getRelativeSourceCoordinate(int xi, int yi, int offset) {
+			int i = 2 * getIndex(xi, yi) + offset;
+			if (relativeSourceCoordinates != null)
+				return relativeSourceCoordinates.get(i);
+			long word = outsideMask.get(yi * outsideMaskWordsPerRow + (xi >>> 6));
+			if ((word & (1L << xi)) != 0L)
+				return Float.NaN;
+			return fixedPointRelativeSourceCoordinates.get(i) / CompactProjectionState.FIXED_POINT_ONE;
+		}
+
+		@Override
+		public long getSizeInBytes() {
+			return 0L; // all data is mapped
+		}
+
+		@Override
+		public void writeTo(ProjectionStore.Writer writer) throws IOException {
+			boolean compact = relativeSourceCoordinates == null;
+			writeHeaderTo(writer, compact);
+			if (compact) {
+				for (int i = 0; i < outsideMask.limit(); i++) {
+					writer.putLong(outsideMask.get(i));
+				}
+				for (int i = 0; i < fixedPointRelativeSourceCoordinates.limit(); i++) {
+					writer.putChar(fixedPointRelativeSourceCoordinates.get(i));
+				}
+			} else {
+				for (int i = 0; i < relativeSourceCoordinates.limit(); i++) {
+					writer.putFloat(relativeSourceCoordinates.get(i));
+				}
+			}
 		}
 
 	}
@@ -570,14 +2016,18 @@ public class QuadrilateralImageProjection {
 
 		private PseudoPerspective pseudoPerspective;
 
-		public ProjectionStateCacheKey(Quadrilateral targetArea, PseudoPerspective pseudoPerspective) {
+		private boolean projectiveMapping;
+
+		public ProjectionStateCacheKey(Quadrilateral targetArea, PseudoPerspective pseudoPerspective,
+				boolean projectiveMapping) {
 			this.targetArea = targetArea;
 			this.pseudoPerspective = pseudoPerspective;
+			this.projectiveMapping = projectiveMapping;
 		}
 
 		@Override
 		public int hashCode() {
-			return Objects.hash(getTargetArea(), getPseudoPerspective());
+			return Objects.hash(getTargetArea(), getPseudoPerspective(), isProjectiveMapping());
 		}
 
 		@Override
@@ -590,7 +2040,8 @@ public class QuadrilateralImageProjection {
 				return false;
 			ProjectionStateCacheKey other = (ProjectionStateCacheKey) obj;
 			return Objects.equals(getPseudoPerspective(), other.getPseudoPerspective())
-					&& Objects.equals(getTargetArea(), other.getTargetArea());
+					&& Objects.equals(getTargetArea(), other.getTargetArea())
+					&& isProjectiveMapping() == other.isProjectiveMapping();
 		}
 
 		private Quadrilateral getTargetArea() {
@@ -601,6 +2052,32 @@ public class QuadrilateralImageProjection {
 			return pseudoPerspective;
 		}
 
+		public void writeTo(ProjectionStore.Writer writer) throws IOException {
+			getTargetArea().writeTo(writer);
+			writer.putByte(getPseudoPerspective() != null ? 1 : 0);
+			if (getPseudoPerspective() != null) {
+				writer.putFloat(getPseudoPerspective().getHorizontalMagnitude());
+				writer.putFloat(getPseudoPerspective().getVerticalMagnitude());
+			}
+			writer.putByte(isProjectiveMapping() ? 1 : 0);
+		}
+
+		public static ProjectionStateCacheKey readFrom(ByteBuffer buffer) {
+			Quadrilateral targetArea = Quadrilateral.readFrom(buffer);
+			PseudoPerspective pseudoPerspective = null;
+			if (buffer.get() != 0) {
+				float horizontalMagnitude = buffer.getFloat();
+				float verticalMagnitude = buffer.getFloat();
+				pseudoPerspective = new PseudoPerspective(horizontalMagnitude, verticalMagnitude);
+			}
+			boolean projectiveMapping = buffer.get() != 0;
+			return new ProjectionStateCacheKey(targetArea, pseudoPerspective, projectiveMapping);
+		}
+
+		private boolean isProjectiveMapping() {
+			return projectiveMapping;
+		}
+
 	}
 
 }
\ No newline at end of file
@@ -4,7 +4,11 @@ import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.util.Arrays;
 
+import org.maia.graphics2d.image.ImageRaster;
 import org.maia.graphics2d.image.ImageUtils;
+import org.maia.graphics2d.image.parallel.ImageTile;
+import org.maia.graphics2d.image.parallel.ImageTileProcessor;
+import org.maia.graphics2d.image.parallel.ImageTileScheduler;
 
 public class ConvolutionMatrix {
 
@@ -92,19 +96,31 @@ public class ConvolutionMatrix {
 	}
 
 	public BufferedImage convoluteImage(BufferedImage image, ConvolutionMask mask) {
+		return convoluteImage(image, mask, ImageTileScheduler.SERIAL);
+	}
+
+	public BufferedImage convoluteImage(final BufferedImage image, final ConvolutionMask mask,
+			ImageTileScheduler scheduler) {
 		int width = image.getWidth();
 		int height = image.getHeight();
 		BufferedImage cimg = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
 		ImageUtils.makeFullyTransparent(cimg);
-		int yOffset = -(getRows() - 1) / 2;
-		int xOffset = -(getColumns() - 1) / 2;
-		for (int y = 0; y < height; y++) {
-			int y0 = y + yOffset;
-			for (int x = 0; x < width; x++) {
-				int x0 = x + xOffset;
-				cimg.setRGB(x, y, convoluteImageAtPixel(image, x0, y0, mask).getRGB());
+		final ImageRaster raster = ImageRaster.createImageRaster(cimg);
+		final int yOffset = -(getRows() - 1) / 2;
+		final int xOffset = -(getColumns() - 1) / 2;
+		scheduler.process(width, height, new ImageTileProcessor() {
+
+			@Override
+			public void processTile(ImageTile tile) {
+				for (int y = tile.getY(); y < tile.getEndY(); y++) {
+					int y0 = y + yOffset;
+					for (int x = tile.getX(); x < tile.getEndX(); x++) {
+						int x0 = x + xOffset;
+						raster.setRGB(x, y, convoluteImageAtPixel(image, x0, y0, mask).getRGB());
+					}
+				}
 			}
-		}
+		});
 		return cimg;
 	}
 
@@ -0,0 +1,83 @@
+package org.maia.graphics2d.image.parallel;
+
+import java.awt.Rectangle;
+
+/**
+ * Rectangular part of an image area, as handed out by an <code>ImageTileScheduler</code>
+ * 
+ * @see ImageTileScheduler
+ */
+public class ImageTile {
+
+	private int index;
+
+	private int x;
+
+	private int y;
+
+	private int width;
+
+	private int height;
+
+	public ImageTile(int index, int x, int y, int width, int height) {
+		this.index = index;
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+	}
+
+	@Override
+	public String toString() {
+		return "ImageTile #" + getIndex() + " [x=" + getX() + ", y=" + getY() + ", width=" + getWidth() + ", height="
+				+ getHeight() + "]";
+	}
+
+	public Rectangle getBounds() {
+		return new Rectangle(getX(), getY(), getWidth(), getHeight());
+	}
+
+	/**
+	 * Returns the sequence number of this tile within the image area, in row-major order
+	 * 
+	 * @return The tile index, starting from 0
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	public int getX() {
+		return x;
+	}
+
+	public int getY() {
+		return y;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the x coordinate right after this tile
+	 * 
+	 * @return <code>getX() + getWidth()</code>
+	 */
+	public int getEndX() {
+		return x + width;
+	}
+
+	/**
+	 * Returns the y coordinate right below this tile
+	 * 
+	 * @return <code>getY() + getHeight()</code>
+	 */
+	public int getEndY() {
+		return y + height;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package org.maia.graphics2d.image.parallel;
+
+public interface ImageTileListener {
+
+	/**
+	 * Notifies that a tile has been processed
+	 * 
+	 * <p>
+	 * This method may be invoked concurrently from different worker threads
+	 * </p>
+	 * 
+	 * @param tile
+	 *            The tile that was processed
+	 * @param durationNanos
+	 *            The wall-clock time it took to process the tile, in nanoseconds
+	 */
+	void tileProcessed(ImageTile tile, long durationNanos);
+
+}
\ No newline at end of file
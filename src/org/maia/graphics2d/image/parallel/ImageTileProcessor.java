@@ -0,0 +1,18 @@
+package org.maia.graphics2d.image.parallel;
+
+public interface ImageTileProcessor {
+
+	/**
+	 * Processes one tile of an image area
+	 * 
+	 * <p>
+	 * When tiles are processed in parallel, this method is invoked concurrently for different tiles. Tiles never
+	 * overlap, so implementations are free to write the pixels of their tile without synchronization
+	 * </p>
+	 * 
+	 * @param tile
+	 *            The tile to process
+	 */
+	void processTile(ImageTile tile);
+
+}
\ No newline at end of file
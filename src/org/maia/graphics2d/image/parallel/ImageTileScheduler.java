@@ -0,0 +1,255 @@
+package org.maia.graphics2d.image.parallel;
+
+import java.awt.Rectangle;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits an image area into tiles and processes them, in parallel on a fork-join pool
+ * 
+ * <p>
+ * Tiles are laid out in row-major order and have the configured size, except at the right and bottom border where
+ * they are clipped to the area. With a tile width of {@link #FULL_WIDTH}, the tiles are row bands spanning the full
+ * width of the area.
+ * </p>
+ * 
+ * <p>
+ * A scheduler with a parallelism of 1, like {@link #SERIAL}, processes all tiles in the calling thread, in order.
+ * Operations that accept a scheduler produce the same output regardless of the scheduler being used.
+ * </p>
+ * 
+ * @see ImageTileProcessor
+ */
+public class ImageTileScheduler {
+
+	public static final int FULL_WIDTH = Integer.MAX_VALUE;
+
+	public static final int FULL_HEIGHT = Integer.MAX_VALUE;
+
+	private static final int DEFAULT_BAND_HEIGHT = 16;
+
+	/**
+	 * Processes the image area as a single tile in the calling thread
+	 */
+	public static final ImageTileScheduler SERIAL = new ImageTileScheduler(1, FULL_WIDTH, FULL_HEIGHT);
+
+	private static volatile ImageTileScheduler defaultInstance;
+
+	private int parallelism;
+
+	private int tileWidth;
+
+	private int tileHeight;
+
+	private ForkJoinPool forkJoinPool;
+
+	private List<ImageTileListener> tileListeners;
+
+	public ImageTileScheduler(int parallelism, int tileWidth, int tileHeight) {
+		if (parallelism <= 0)
+			throw new IllegalArgumentException("The parallelism must be strictly positive (" + parallelism + ")");
+		if (tileWidth <= 0)
+			throw new IllegalArgumentException("The tileWidth must be strictly positive (" + tileWidth + ")");
+		if (tileHeight <= 0)
+			throw new IllegalArgumentException("The tileHeight must be strictly positive (" + tileHeight + ")");
+		this.parallelism = parallelism;
+		this.tileWidth = tileWidth;
+		this.tileHeight = tileHeight;
+		this.tileListeners = new CopyOnWriteArrayList<ImageTileListener>();
+	}
+
+	public static ImageTileScheduler createRowBandScheduler(int parallelism, int bandHeight) {
+		return new ImageTileScheduler(parallelism, FULL_WIDTH, bandHeight);
+	}
+
+	/**
+	 * Returns a shared scheduler that processes row bands using all available processors
+	 * 
+	 * @return The default scheduler
+	 */
+	public static ImageTileScheduler getDefault() {
+		ImageTileScheduler scheduler = defaultInstance;
+		if (scheduler == null) {
+			synchronized (ImageTileScheduler.class) {
+				scheduler = defaultInstance;
+				if (scheduler == null) {
+					scheduler = createRowBandScheduler(Runtime.getRuntime().availableProcessors(), DEFAULT_BAND_HEIGHT);
+					defaultInstance = scheduler;
+				}
+			}
+		}
+		return scheduler;
+	}
+
+	public void process(int width, int height, ImageTileProcessor processor) {
+		process(new Rectangle(0, 0, width, height), processor);
+	}
+
+	/**
+	 * Processes all tiles of an image area. Returns when all tiles have been processed
+	 * 
+	 * @param area
+	 *            The image area to process
+	 * @param processor
+	 *            The processor for the tiles
+	 * @throws RuntimeException
+	 *             When the processing of a tile failed
+	 */
+	public void process(Rectangle area, ImageTileProcessor processor) {
+		if (area.isEmpty())
+			return;
+		TileLayout layout = new TileLayout(area, getTileWidth(), getTileHeight());
+		int n = layout.getTileCount();
+		if (getParallelism() == 1 || n == 1) {
+			for (int i = 0; i < n; i++) {
+				processTile(layout.getTile(i), processor);
+			}
+		} else {
+			getForkJoinPool().invoke(new TileRangeAction(layout, 0, n, processor));
+		}
+	}
+
+	private void processTile(ImageTile tile, ImageTileProcessor processor) {
+		if (tileListeners.isEmpty()) {
+			processor.processTile(tile);
+		} else {
+			long start = System.nanoTime();
+			processor.processTile(tile);
+			long duration = System.nanoTime() - start;
+			for (ImageTileListener listener : tileListeners) {
+				listener.tileProcessed(tile, duration);
+			}
+		}
+	}
+
+	/**
+	 * Releases the worker threads of this scheduler. The scheduler remains usable, and will create new worker threads
+	 * when needed
+	 */
+	public synchronized void shutdown() {
+		if (forkJoinPool != null) {
+			forkJoinPool.shutdown();
+			forkJoinPool = null;
+		}
+	}
+
+	/**
+	 * Returns an executor for running tasks other than tiles on the worker threads of this scheduler
+	 * 
+	 * @return The executor. For a scheduler with a parallelism of 1, tasks run in the thread that submits them
+	 */
+	public Executor getExecutor() {
+		if (getParallelism() == 1) {
+			return CallerRunsExecutor.INSTANCE;
+		} else {
+			return getForkJoinPool();
+		}
+	}
+
+	public void addTileListener(ImageTileListener listener) {
+		tileListeners.add(listener);
+	}
+
+	public void removeTileListener(ImageTileListener listener) {
+		tileListeners.remove(listener);
+	}
+
+	private synchronized ForkJoinPool getForkJoinPool() {
+		if (forkJoinPool == null) {
+			forkJoinPool = new ForkJoinPool(getParallelism());
+		}
+		return forkJoinPool;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public int getTileWidth() {
+		return tileWidth;
+	}
+
+	public int getTileHeight() {
+		return tileHeight;
+	}
+
+	private static class TileLayout {
+
+		private Rectangle area;
+
+		private int tileWidth;
+
+		private int tileHeight;
+
+		private int columns;
+
+		private int rows;
+
+		public TileLayout(Rectangle area, int tileWidth, int tileHeight) {
+			this.area = area;
+			this.tileWidth = Math.min(tileWidth, area.width);
+			this.tileHeight = Math.min(tileHeight, area.height);
+			this.columns = (area.width + this.tileWidth - 1) / this.tileWidth;
+			this.rows = (area.height + this.tileHeight - 1) / this.tileHeight;
+		}
+
+		public ImageTile getTile(int index) {
+			int x = (index % columns) * tileWidth;
+			int y = (index / columns) * tileHeight;
+			int width = Math.min(tileWidth, area.width - x);
+			int height = Math.min(tileHeight, area.height - y);
+			return new ImageTile(index, area.x + x, area.y + y, width, height);
+		}
+
+		public int getTileCount() {
+			return columns * rows;
+		}
+
+	}
+
+	private static class CallerRunsExecutor implements Executor {
+
+		public static final CallerRunsExecutor INSTANCE = new CallerRunsExecutor();
+
+		@Override
+		public void execute(Runnable task) {
+			task.run();
+		}
+
+	}
+
+	@SuppressWarnings("serial")
+	private class TileRangeAction extends RecursiveAction {
+
+		private TileLayout layout;
+
+		private int fromIndex;
+
+		private int toIndex;
+
+		private ImageTileProcessor processor;
+
+		public TileRangeAction(TileLayout layout, int fromIndex, int toIndex, ImageTileProcessor processor) {
+			this.layout = layout;
+			this.fromIndex = fromIndex;
+			this.toIndex = toIndex;
+			this.processor = processor;
+		}
+
+		@Override
+		protected void compute() {
+			if (toIndex - fromIndex == 1) {
+				processTile(layout.getTile(fromIndex), processor);
+			} else {
+				int mid = (fromIndex + toIndex) >>> 1;
+				invokeAll(new TileRangeAction(layout, fromIndex, mid, processor),
+						new TileRangeAction(layout, mid, toIndex, processor));
+			}
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+package org.maia.graphics2d.image.parallel;
+
+import java.text.NumberFormat;
+
+/**
+ * Collects timing statistics of processed tiles, to help tune the tile size of an <code>ImageTileScheduler</code>
+ * 
+ * @see ImageTileScheduler#addTileListener(ImageTileListener)
+ */
+public class ImageTileStatistics implements ImageTileListener {
+
+	private long tiles;
+
+	private long pixels;
+
+	private long totalNanos;
+
+	private long minNanos;
+
+	private long maxNanos;
+
+	private NumberFormat numberFormat; // not thread-safe, only used while holding the lock of this instance
+
+	public ImageTileStatistics() {
+		this.numberFormat = NumberFormat.getNumberInstance();
+		this.numberFormat.setGroupingUsed(true);
+		reset();
+	}
+
+	@Override
+	public synchronized void tileProcessed(ImageTile tile, long durationNanos) {
+		tiles++;
+		pixels += (long) tile.getWidth() * tile.getHeight();
+		totalNanos += durationNanos;
+		minNanos = Math.min(minNanos, durationNanos);
+		maxNanos = Math.max(maxNanos, durationNanos);
+	}
+
+	public synchronized void reset() {
+		tiles = 0;
+		pixels = 0;
+		totalNanos = 0;
+		minNanos = Long.MAX_VALUE;
+		maxNanos = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("Image tile statistics {\n");
+		builder.append("\tTiles: ").append(format(tiles)).append("\n");
+		builder.append("\tPixels: ").append(format(pixels)).append("\n");
+		builder.append("\tTotal time (ns): ").append(format(totalNanos)).append("\n");
+		builder.append("\tMin tile time (ns): ").append(format(getMinNanos())).append("\n");
+		builder.append("\tMax tile time (ns): ").append(format(maxNanos)).append("\n");
+		builder.append("\tMean tile time (ns): ").append(format(getMeanNanos())).append("\n");
+		builder.append("\tMean pixel time (ns): ").append(format(getMeanNanosPerPixel())).append("\n");
+		builder.append("}");
+		return builder.toString();
+	}
+
+	private String format(long value) {
+		return numberFormat.format(value);
+	}
+
+	public synchronized long getTiles() {
+		return tiles;
+	}
+
+	public synchronized long getPixels() {
+		return pixels;
+	}
+
+	public synchronized long getTotalNanos() {
+		return totalNanos;
+	}
+
+	public synchronized long getMinNanos() {
+		return tiles > 0 ? minNanos : 0;
+	}
+
+	public synchronized long getMaxNanos() {
+		return maxNanos;
+	}
+
+	public synchronized long getMeanNanos() {
+		return tiles > 0 ? totalNanos / tiles : 0;
+	}
+
+	public synchronized long getMeanNanosPerPixel() {
+		return pixels > 0 ? totalNanos / pixels : 0;
+	}
+
+}
\ No newline at end of file
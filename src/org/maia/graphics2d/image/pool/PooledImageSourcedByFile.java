@@ -4,14 +4,22 @@ import java.awt.Image;
 import java.io.File;
 import java.io.IOException;
 
+import org.maia.graphics2d.image.ImageHeader;
 import org.maia.graphics2d.image.ImageInfo;
 import org.maia.graphics2d.image.ImageInfoImpl;
 import org.maia.graphics2d.image.ImageUtils;
+import org.maia.graphics2d.image.io.RawImageCache;
 
 public class PooledImageSourcedByFile extends AbstractPooledImage {
 
 	private File imageSourceFile;
 
+	private ImageHeader imageHeader;
+
+	private boolean imageHeaderProbed;
+
+	private Object imageHeaderLock = new Object(); // separate from the image, so probing does not wait for decoding
+
 	private static PooledImageProducer imageLoader = new ImageFileLoader();
 
 	public PooledImageSourcedByFile(File imageSourceFile, ImagePool imagePool) {
@@ -47,6 +55,48 @@ public class PooledImageSourcedByFile extends AbstractPooledImage {
 		return imageLoader;
 	}
 
+	/**
+	 * Returns information about the image
+	 * 
+	 * <p>
+	 * When the image information is an <code>ImageInfoImpl</code> without a size, the size is probed from the header
+	 * of the image file on first request, without producing the image or adding it to the pool. Other kinds of image
+	 * information are left unchanged, and the size can then be obtained from {@link #getImageHeader()}
+	 * </p>
+	 * 
+	 * @return An object containing image information, as given at construction
+	 */
+	@Override
+	public ImageInfo getImageInfo() {
+		ImageInfo imageInfo = super.getImageInfo();
+		if (imageInfo instanceof ImageInfoImpl && imageInfo.getSize() == null) {
+			ImageHeader header = getImageHeader();
+			if (header != null) {
+				synchronized (imageHeaderLock) {
+					if (imageInfo.getSize() == null) {
+						((ImageInfoImpl) imageInfo).setSize(header.getSize());
+					}
+				}
+			}
+		}
+		return imageInfo;
+	}
+
+	/**
+	 * Returns the header of the image file. The header is read once, without producing the image
+	 * 
+	 * @return The image header, or <code>null</code> when the file could not be read as an image
+	 */
+	public ImageHeader getImageHeader() {
+		synchronized (imageHeaderLock) {
+			if (!imageHeaderProbed) {
+				imageHeader = ImageUtils.probeImageHeader(getImageSourceFile());
+				imageHeaderProbed = true;
+			}
+			return imageHeader;
+		}
+	}
+
 	public File getImageSourceFile() {
 		return imageSourceFile;
 	}
@@ -61,7 +111,12 @@ public class PooledImageSourcedByFile extends AbstractPooledImage {
 			Image image = null;
 			if (pooledImage instanceof PooledImageSourcedByFile) {
 				File file = ((PooledImageSourcedByFile) pooledImage).getImageSourceFile();
-				image = ImageUtils.readFromFile(file);
+				RawImageCache cache = RawImageCache.getSharedInstance();
+				if (cache != null) {
+					image = cache.readFromFile(file);
+				} else {
+					image = ImageUtils.readFromFile(file);
+				}
 			}
 			return image;
 		}
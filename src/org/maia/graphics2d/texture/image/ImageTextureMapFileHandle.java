@@ -1,8 +1,10 @@
 package org.maia.graphics2d.texture.image;
 
 import java.awt.image.BufferedImage;
+import java.io.File;
 
 import org.maia.graphics2d.image.ImageUtils;
+import org.maia.graphics2d.image.io.RawImageCache;
 import org.maia.graphics2d.texture.TextureMap;
 import org.maia.graphics2d.texture.TextureMapHandle;
 
@@ -66,11 +68,14 @@ public class ImageTextureMapFileHandle extends TextureMapHandle {
 	}
 
 	protected BufferedImage readImageFromFile() {
-		BufferedImage image = ImageUtils.readFromFile(getFilePath());
-		if (getScaleX() != 1.0 || getScaleY() != 1.0) {
-			image = ImageUtils.scale(image, getScaleX(), getScaleY());
+		RawImageCache cache = RawImageCache.getSharedInstance();
+		if (cache != null) {
+			return cache.readFromFileScaled(new File(getFilePath()), getScaleX(), getScaleY());
+		} else if (getScaleX() != 1.0 || getScaleY() != 1.0) {
+			return ImageUtils.readFromFileScaled(new File(getFilePath()), getScaleX(), getScaleY());
+		} else {
+			return ImageUtils.readFromFile(getFilePath());
 		}
-		return image;
 	}
 
 	public String getFilePath() {
@@ -132,7 +132,7 @@ public class TransformMatrix2D {
 		return sb.toString();
 	}
 
-	protected double getValue(int row, int col) {
+	public double getValue(int row, int col) {
 		return getValues()[row * 3 + col];
 	}
 